@@ -0,0 +1,75 @@
+package com.heroesyvillanos.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.heroesyvillanos.*;
+
+class AlmacenPersonajesTest {
+
+	@Test
+	void testAgregarPersonaje() {
+		AlmacenPersonajes almacen = new AlmacenPersonajes();
+		Personaje p = new Personaje("peter", "spider-man", new int[] {10, 20, 30, 40}, TipoCompetidor.HEROE);
+		
+		int id = almacen.agregar(p);
+		
+		assertEquals(0, id);
+		assertEquals(id, p.getIdAlmacen());
+		assertEquals(1, almacen.getCantidad());
+		assertEquals("spider-man", p.getNombreFantasia());
+		assertEquals(30, p.getPromedioCaracteristica(Caracteristica.RESISTENCIA));
+		
+		//Los cambios sobre el personaje se guardan en la fila del almacén
+		p.getCaracteristicas().put(Caracteristica.RESISTENCIA, 35);
+		assertEquals(35, almacen.getPersonaje(id).getPromedioCaracteristica(Caracteristica.RESISTENCIA));
+	}
+	
+	@Test
+	void testPersonajeDeOtroAlmacen() {
+		AlmacenPersonajes almacen = new AlmacenPersonajes();
+		AlmacenPersonajes otro = new AlmacenPersonajes();
+		Personaje p = new Personaje("peter", "spider-man", new int[] {10, 20, 30, 40}, TipoCompetidor.HEROE);
+		almacen.agregar(p);
+		
+		assertThrows(IllegalArgumentException.class, () -> otro.agregar(p));
+		assertThrows(IllegalArgumentException.class, () -> almacen.agregar(p));
+		assertEquals(0, otro.getCantidad());
+		assertEquals(1, almacen.getCantidad());
+		assertEquals(0, p.getIdAlmacen());
+		assertSame(p, almacen.getPersonaje(0));
+	}
+	
+	@Test
+	void testCrecimiento() {
+		AlmacenPersonajes almacen = new AlmacenPersonajes();
+		for (int i = 0; i < 100; i++) {
+			almacen.agregar(new Personaje("nombre" + i, "fantasia" + i, new int[] {i, i, i, i}, TipoCompetidor.HEROE));
+		}
+		
+		assertEquals(100, almacen.getCantidad());
+		assertEquals(100, almacen.getPersonajes().size());
+		assertEquals("fantasia99", almacen.getPersonaje(99).getNombreFantasia());
+		assertEquals(57, almacen.getPersonaje(57).getPromedioCaracteristica(Caracteristica.DESTREZA));
+	}
+	
+	@Test
+	void testOrdenarPorCriterios() {
+		AlmacenPersonajes almacen = new AlmacenPersonajes();
+		Personaje p1 = new Personaje("a", "a", new int[] {5, 1, 1, 1}, TipoCompetidor.HEROE);
+		Personaje p2 = new Personaje("b", "b", new int[] {5, 1, 1, 1}, TipoCompetidor.HEROE);
+		Personaje p3 = new Personaje("c", "c", new int[] {1, 9, 1, 1}, TipoCompetidor.VILLANO);
+		almacen.agregar(p1);
+		almacen.agregar(p2);
+		almacen.agregar(p3);
+		
+		List<Personaje> ordenados = almacen.ordenarPorCriterios(Arrays.asList(Caracteristica.VELOCIDAD));
+		
+		//En caso de empate se mantiene el orden de carga
+		assertEquals(Arrays.asList(p3, p1, p2), ordenados);
+	}
+}
@@ -0,0 +1,45 @@
+package com.heroesyvillanos.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.heroesyvillanos.*;
+
+class CacheCombatesTest {
+	
+	@Test
+	void testAciertosYVersiones() throws Exception {
+		Personaje superman = new Personaje("Clark Kent", "Superman", new int[] {95, 100, 100, 85}, TipoCompetidor.HEROE);
+		Personaje joker = new Personaje("Jack Napier", "Jóker", new int[] {40, 30, 50, 80}, TipoCompetidor.VILLANO);
+		Personaje lex = new Personaje("Lex Luthor", "Lex", new int[] {30, 40, 40, 70}, TipoCompetidor.VILLANO);
+		Liga villanos = new Liga("Villanos", TipoCompetidor.VILLANO);
+		villanos.agregarCompetidorALiga(joker);
+		CacheCombates cache = new CacheCombates(64);
+		
+		assertEquals(1, cache.combatir(superman, villanos, Caracteristica.FUERZA));
+		// El par invertido usa la misma entrada
+		assertEquals(-1, cache.combatir(villanos, superman, Caracteristica.FUERZA));
+		assertEquals(1, cache.getAciertos());
+		assertEquals(1, cache.getFallos());
+		
+		// Cambiar un personaje invalida sus combates guardados, y también los de la liga que lo contiene
+		Map<Caracteristica, Integer> valores = new HashMap<Caracteristica, Integer>(joker.getCaracteristicas());
+		valores.put(Caracteristica.FUERZA, 200);
+		joker.setCaracteristicas(valores);
+		assertEquals(-1, cache.combatir(superman, villanos, Caracteristica.FUERZA));
+		assertEquals(2, cache.getFallos());
+		
+		// Agregar un miembro a la liga también la invalida
+		villanos.agregarCompetidorALiga(lex);
+		assertEquals(superman.esGanador(villanos, Caracteristica.FUERZA) > 0 ? 1 : -1,
+				cache.combatir(superman, villanos, Caracteristica.FUERZA));
+		assertEquals(3, cache.getFallos());
+		assertEquals(0.25, cache.getTasaAciertos());
+		
+		assertThrows(Exception.class, () -> cache.combatir(joker, lex, Caracteristica.FUERZA));
+	}
+}
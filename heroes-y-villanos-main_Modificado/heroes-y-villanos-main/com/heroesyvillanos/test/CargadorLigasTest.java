@@ -0,0 +1,104 @@
+package com.heroesyvillanos.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.heroesyvillanos.*;
+
+class CargadorLigasTest {
+	
+	private RegistroNombres registro() {
+		RegistroNombres registro = new RegistroNombres();
+		registro.reemplazarPersonajes(Arrays.asList(
+				new Personaje("Clark Kent", "Superman", new int[] {95, 100, 100, 85}, TipoCompetidor.HEROE),
+				new Personaje("Bruce Wayne", "Batman", new int[] {50, 60, 70, 100}, TipoCompetidor.HEROE),
+				new Personaje("Barry Allen", "Flash", new int[] {100, 60, 70, 90}, TipoCompetidor.HEROE),
+				new Personaje("Jack Napier", "Joker", new int[] {40, 30, 50, 80}, TipoCompetidor.VILLANO)));
+		return registro;
+	}
+	
+	@Test
+	void testReferenciaHaciaAdelante() throws IOException {
+		CargadorLigas cargador = new CargadorLigas(registro());
+		
+		// La Liga de la Justicia nombra a Rápidos antes de que aparezca su definición
+		List<Liga> ligas = cargador.cargar(new StringReader(
+				"Liga de la Justicia, Superman, Rápidos\n"
+				+ "Rápidos, Flash, Batman\n"));
+		
+		assertTrue(cargador.getProblemas().isEmpty());
+		assertEquals(2, ligas.size());
+		Liga justicia = ligas.get(0);
+		assertEquals("Liga de la Justicia", justicia.getNombreLiga());
+		assertEquals(3, justicia.getCantidadCompetidores());
+		assertTrue(justicia.esAncestroDe(ligas.get(1)));
+		assertEquals((95 + 100 + 50) / 3, justicia.getPromedioCaracteristica(Caracteristica.VELOCIDAD));
+	}
+	
+	@Test
+	void testProblemasInformados() throws IOException {
+		CargadorLigas cargador = new CargadorLigas(registro());
+		
+		List<Liga> ligas = cargador.cargar(new StringReader(
+				"A, Superman, B\n"
+				+ "B, Flash, A\n"
+				+ "C, Batman, Joker, Desconocido\n"
+				+ "D, Desconocido\n"
+				+ "A, Batman\n"));
+		
+		List<String> problemas = cargador.getProblemas();
+		assertEquals(6, problemas.size());
+		assertTrue(problemas.get(0).startsWith("Línea 5: la liga A ya fue definida en la línea 1"));
+		assertTrue(problemas.get(1).contains("ciclo entre ligas (A -> B -> A)"));
+		assertTrue(problemas.get(2).contains("Joker es de otro tipo"));
+		assertTrue(problemas.get(3).contains("no existe el personaje o liga Desconocido"));
+		assertTrue(problemas.get(5).contains("la liga D no tiene miembros válidos"));
+		
+		// A contiene a B, pero B no vuelve a contener a A
+		assertEquals(Arrays.asList("A", "B", "C"), Arrays.asList(ligas.get(0).getNombre(), ligas.get(1).getNombre(), ligas.get(2).getNombre()));
+		assertEquals(2, ligas.get(0).getCantidadCompetidores());
+		assertEquals(1, ligas.get(1).getCantidadCompetidores());
+	}
+	
+	@Test
+	void testCadenaLargaEnOrdenInverso() throws IOException {
+		// Cada liga contiene a la definida en la línea siguiente, y la última contiene a Superman
+		int cantidad = 100_000;
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < cantidad - 1; i++) {
+			sb.append("Liga").append(i).append(", Liga").append(i + 1).append('\n');
+		}
+		sb.append("Liga").append(cantidad - 1).append(", Superman\n");
+		
+		CargadorLigas cargador = new CargadorLigas(registro());
+		List<Liga> ligas = cargador.cargar(new StringReader(sb.toString()));
+		
+		assertTrue(cargador.getProblemas().isEmpty());
+		assertEquals(cantidad, ligas.size());
+		assertEquals(1, ligas.get(0).getCantidadCompetidores());
+		assertEquals(95, ligas.get(0).getPromedioCaracteristica(Caracteristica.VELOCIDAD));
+		assertEquals(cantidad - 1, ligas.get(cantidad - 1).getProfundidad());
+	}
+	
+	@Test
+	void testPersonajeConNombreDeLiga() throws IOException {
+		CargadorLigas cargador = new CargadorLigas(registro());
+		
+		// En Rápidos, Flash es el personaje y no la liga Flash, así que no hay ciclo
+		List<Liga> ligas = cargador.cargar(new StringReader(
+				"Rápidos, Flash\n"
+				+ "Flash, Rápidos\n"));
+		
+		assertTrue(cargador.getProblemas().isEmpty());
+		assertEquals(2, ligas.size());
+		assertEquals("Flash", ligas.get(1).getNombreLiga());
+		assertTrue(ligas.get(1).esAncestroDe(ligas.get(0)));
+		assertEquals(1, ligas.get(1).getCantidadCompetidores());
+	}
+}
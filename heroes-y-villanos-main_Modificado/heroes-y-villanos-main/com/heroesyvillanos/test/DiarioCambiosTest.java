@@ -0,0 +1,172 @@
+package com.heroesyvillanos.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.heroesyvillanos.*;
+
+class DiarioCambiosTest {
+
+	@Test
+	void testReproducirCambios() throws Exception {
+		Path directorio = Files.createTempDirectory("juego");
+		String pathSnapshot = directorio.resolve("juego.snapshot").toString();
+		String pathDiario = directorio.resolve("juego.diario").toString();
+		try {
+			AlmacenPersonajes almacen = new AlmacenPersonajes();
+			almacen.agregar(new Personaje("Clark Kent", "Superman", new int[] {95, 100, 100, 85}, TipoCompetidor.HEROE));
+			List<Liga> ligas = new ArrayList<Liga>();
+			SnapshotJuego.guardar(pathSnapshot, almacen, ligas, 1);
+			
+			try (DiarioCambios diario = new DiarioCambios(pathDiario)) {
+				diario.iniciar(1);
+				Personaje flash = new Personaje("Barry Allen", "Flash", new int[] {100, 60, 70, 90}, TipoCompetidor.HEROE);
+				almacen.agregar(flash);
+				diario.registrarCrearPersonaje(flash);
+				Liga justicia = new Liga("Liga de la Justicia", TipoCompetidor.HEROE);
+				ligas.add(justicia);
+				diario.registrarCrearLiga(justicia);
+				justicia.agregarCompetidorALiga(almacen.getPersonaje(0));
+				diario.registrarAgregarPersonaje(0, 0);
+				justicia.agregarCompetidorALiga(flash);
+				diario.registrarAgregarPersonaje(0, 1);
+				assertEquals(4, diario.getCantidadRegistros());
+			}
+			
+			// Se simula un corte a mitad de un registro: la cola incompleta se descarta
+			try (RandomAccessFile archivo = new RandomAccessFile(pathDiario, "rw")) {
+				archivo.seek(archivo.length());
+				archivo.write(new byte[] {0, 0, 0, 40, 1, 2});
+			}
+			
+			SnapshotJuego snapshot = SnapshotJuego.cargar(pathSnapshot);
+			List<Liga> ligasCargadas = new ArrayList<Liga>(snapshot.getLigas());
+			try (DiarioCambios diario = new DiarioCambios(pathDiario)) {
+				assertEquals(4, diario.reproducir(snapshot.getGeneracion(), snapshot.getAlmacenPersonajes(), ligasCargadas));
+				assertTrue(diario.estaActivo());
+			}
+			
+			assertEquals(2, snapshot.getAlmacenPersonajes().getCantidad());
+			assertEquals("Flash", snapshot.getAlmacenPersonajes().getPersonaje(1).getNombreFantasia());
+			assertEquals(1, ligasCargadas.size());
+			assertEquals(2, ligasCargadas.get(0).getCantidadCompetidores());
+			assertEquals((100 + 60) / 2, ligasCargadas.get(0).getPromedioCaracteristica(Caracteristica.FUERZA));
+		} finally {
+			for (Path p : Files.list(directorio).toArray(Path[]::new)) {
+				Files.delete(p);
+			}
+			Files.delete(directorio);
+		}
+	}
+	
+	@Test
+	void testDiarioDeOtraGeneracionSeDescarta() throws Exception {
+		Path pathDiario = Files.createTempFile("juego", ".diario");
+		try {
+			try (DiarioCambios diario = new DiarioCambios(pathDiario.toString())) {
+				diario.iniciar(1);
+				diario.registrarCrearLiga(new Liga("Villanos", TipoCompetidor.VILLANO));
+			}
+			
+			// El snapshot ya es de la generación 2: sus cambios fueron compactados
+			List<Liga> ligas = new ArrayList<Liga>();
+			try (DiarioCambios diario = new DiarioCambios(pathDiario.toString())) {
+				assertEquals(0, diario.reproducir(2, new AlmacenPersonajes(), ligas));
+				assertEquals(0, diario.getCantidadRegistros());
+			}
+			assertTrue(ligas.isEmpty());
+			
+			// Un diario inactivo no registra nada
+			try (DiarioCambios diario = new DiarioCambios(pathDiario.toString())) {
+				diario.registrarCrearLiga(new Liga("Otra", TipoCompetidor.VILLANO));
+				assertFalse(diario.estaActivo());
+			}
+			assertEquals(16, Files.size(pathDiario));
+		} finally {
+			Files.delete(pathDiario);
+		}
+	}
+	
+	@Test
+	void testCorteEntreSnapshotYDiarioEnSesionNueva() throws Exception {
+		Path directorio = Files.createTempDirectory("juego");
+		String pathSnapshot = directorio.resolve("juego.snapshot").toString();
+		String pathDiario = directorio.resolve("juego.diario").toString();
+		try {
+			// Primera sesión: snapshot con un personaje y un diario que crea una liga sobre él
+			AlmacenPersonajes almacen = new AlmacenPersonajes();
+			almacen.agregar(new Personaje("Clark Kent", "Superman", new int[] {95, 100, 100, 85}, TipoCompetidor.HEROE));
+			try (DiarioCambios diario = new DiarioCambios(pathDiario)) {
+				long generacion = diario.siguienteGeneracion(pathSnapshot, 0);
+				SnapshotJuego.guardar(pathSnapshot, almacen, new ArrayList<Liga>(), generacion);
+				diario.iniciar(generacion);
+				diario.registrarCrearLiga(new Liga("Liga de la Justicia", TipoCompetidor.HEROE));
+				diario.registrarAgregarPersonaje(0, 0);
+			}
+			
+			// Sesión nueva desde los archivos de texto, sin snapshot cargado: se guarda otro estado
+			// y el programa se corta antes de vaciar el diario
+			AlmacenPersonajes otro = new AlmacenPersonajes();
+			otro.agregar(new Personaje("Lex Luthor", "Lex", new int[] {40, 50, 60, 70}, TipoCompetidor.VILLANO));
+			try (DiarioCambios diario = new DiarioCambios(pathDiario)) {
+				long generacion = diario.siguienteGeneracion(pathSnapshot, 0);
+				assertTrue(generacion > 1);
+				SnapshotJuego.guardar(pathSnapshot, otro, new ArrayList<Liga>(), generacion);
+			}
+			
+			// El diario viejo no corresponde al snapshot nuevo y se descarta
+			SnapshotJuego snapshot = SnapshotJuego.cargar(pathSnapshot);
+			List<Liga> ligas = new ArrayList<Liga>(snapshot.getLigas());
+			try (DiarioCambios diario = new DiarioCambios(pathDiario)) {
+				assertEquals(0, diario.reproducir(snapshot.getGeneracion(), snapshot.getAlmacenPersonajes(), ligas));
+			}
+			assertTrue(ligas.isEmpty());
+			assertEquals("Lex", snapshot.getAlmacenPersonajes().getPersonaje(0).getNombreFantasia());
+		} finally {
+			for (Path p : Files.list(directorio).toArray(Path[]::new)) {
+				Files.delete(p);
+			}
+			Files.delete(directorio);
+		}
+	}
+	
+	@Test
+	void testReproduccionFallidaConservaElDiarioActivo() throws Exception {
+		Path pathDiario = Files.createTempFile("juego", ".diario");
+		try {
+			try (DiarioCambios diario = new DiarioCambios(pathDiario.toString())) {
+				diario.iniciar(1);
+				diario.registrarCrearLiga(new Liga("Villanos", TipoCompetidor.VILLANO));
+				diario.registrarAgregarPersonaje(0, 5);
+				
+				// El personaje 5 no existe en el estado vacío: la carga falla y el juego conserva su estado
+				assertThrows(IOException.class, () -> diario.reproducir(1, new AlmacenPersonajes(), new ArrayList<Liga>()));
+				assertTrue(diario.estaActivo());
+				diario.registrarCrearLiga(new Liga("Otra", TipoCompetidor.VILLANO));
+				assertEquals(3, diario.getCantidadRegistros());
+			}
+			
+			// El registro posterior al fallo quedó en el diario
+			List<Liga> ligas = new ArrayList<Liga>();
+			AlmacenPersonajes almacen = new AlmacenPersonajes();
+			for (int i = 0; i < 6; i++) {
+				almacen.agregar(new Personaje("n" + i, "f" + i, new int[] {1, 1, 1, 1}, TipoCompetidor.VILLANO));
+			}
+			try (DiarioCambios diario = new DiarioCambios(pathDiario.toString())) {
+				assertEquals(3, diario.reproducir(1, almacen, ligas));
+			}
+			assertEquals("Otra", ligas.get(1).getNombreLiga());
+			assertEquals(1, ligas.get(0).getCantidadCompetidores());
+		} finally {
+			Files.delete(pathDiario);
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package com.heroesyvillanos.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.heroesyvillanos.*;
+
+class IndiceOrdenadoTest {
+
+	private <T extends Competidor> List<T> ordenarEstable(List<T> lista, Ordenamiento ordenamiento, boolean ascendente) {
+		List<T> ordenada = new ArrayList<T>(lista);
+		ordenada.sort(ordenamiento);
+		if (!ascendente) {
+			Collections.reverse(ordenada);
+		}
+		return ordenada;
+	}
+
+	@Test
+	void testIgualAOrdenarLaLista() {
+		List<Personaje> personajes = Planteles.personajes(new Random(5), 300, 4);
+		List<Caracteristica> criterios = Arrays.asList(Caracteristica.FUERZA, Caracteristica.DESTREZA, Caracteristica.FUERZA);
+		Ordenamiento ordenamiento = new Ordenamiento().setearOrdenCaracteristicas(criterios);
+
+		IndiceOrdenado<Personaje> indice = new IndiceOrdenado<Personaje>(Personaje.class, ordenamiento);
+		indice.reconstruir(personajes);
+
+		assertTrue(indice.ordenaPor(Arrays.asList(Caracteristica.FUERZA, Caracteristica.DESTREZA)));
+		assertFalse(indice.ordenaPor(Arrays.asList(Caracteristica.FUERZA)));
+		assertEquals(ordenarEstable(personajes, ordenamiento, true), indice.listar(true));
+		assertEquals(ordenarEstable(personajes, ordenamiento, false), indice.listar(false));
+		assertEquals(ordenarEstable(personajes, ordenamiento, false).subList(0, 10), indice.primeros(10, false));
+	}
+
+	@Test
+	void testRangoDelPrimerCriterio() {
+		List<Personaje> personajes = Planteles.personajes(new Random(8), 200, 4);
+		Ordenamiento ordenamiento = new Ordenamiento();
+		IndiceOrdenado<Personaje> indice = new IndiceOrdenado<Personaje>(Personaje.class, ordenamiento);
+		indice.reconstruir(personajes);
+
+		List<Personaje> esperados = new ArrayList<Personaje>();
+		for (Personaje p : ordenarEstable(personajes, ordenamiento, true)) {
+			int velocidad = p.getPromedioCaracteristica(Caracteristica.VELOCIDAD);
+			if (velocidad >= 1 && velocidad <= 2) {
+				esperados.add(p);
+			}
+		}
+		assertEquals(esperados, indice.rango(1, 2, true));
+		Collections.reverse(esperados);
+		assertEquals(esperados, indice.rango(1, 2, false));
+		assertTrue(indice.rango(3, 1, true).isEmpty());
+	}
+
+	@Test
+	void testActualizaLigasAlCambiarPromedios() throws Exception {
+		List<Personaje> personajes = Planteles.personajes(new Random(3), 40, 4);
+		List<Liga> ligas = new ArrayList<Liga>();
+		for (int i = 0; i < 6; i++) {
+			ligas.add(new Liga("liga" + i, TipoCompetidor.HEROE));
+		}
+		Ordenamiento ordenamiento = new Ordenamiento().setearOrdenCaracteristicas(Arrays.asList(Caracteristica.RESISTENCIA));
+		IndiceOrdenado<Liga> indice = new IndiceOrdenado<Liga>(Liga.class, ordenamiento);
+		List<Competidor> todos = new ArrayList<Competidor>(personajes);
+		todos.addAll(ligas);
+		indice.reconstruir(todos);
+		assertEquals(ligas.size(), indice.size());
+
+		int i = 0;
+		for (Personaje p : personajes) {
+			if (p.isTipoCompetidor() == TipoCompetidor.HEROE) {
+				Liga liga = ligas.get(i++ % ligas.size());
+				liga.agregarCompetidorALiga(p);
+				indice.actualizar(liga);
+			}
+		}
+		assertEquals(ligas.size(), indice.size());
+		assertEquals(ordenarEstable(ligas, ordenamiento, true), indice.listar(true));
+		assertThrows(IllegalArgumentException.class, () -> indice.primeros(-1, true));
+	}
+
+	@Test
+	void testPosicionesIgualAlListado() throws Exception {
+		Random random = new Random(21);
+		List<Personaje> heroes = Planteles.personajes(random, 300, 4);
+		heroes.removeIf(p -> p.isTipoCompetidor() != TipoCompetidor.HEROE);
+		List<Liga> ligas = new ArrayList<Liga>();
+		for (int i = 0; i < 30; i++) {
+			ligas.add(new Liga("liga" + i, TipoCompetidor.HEROE));
+		}
+		Ordenamiento ordenamiento = new Ordenamiento();
+		IndiceOrdenado<Liga> indice = new IndiceOrdenado<Liga>(Liga.class, ordenamiento);
+		indice.reconstruir(ligas);
+
+		// Cambios de promedios entre consultas, como al agregar competidores a las ligas desde el menú
+		for (Personaje p : heroes) {
+			Liga liga = ligas.get(random.nextInt(ligas.size()));
+			liga.agregarCompetidorALiga(p);
+			indice.actualizar(liga);
+
+			List<Liga> esperado = ordenarEstable(ligas, ordenamiento, true);
+			for (int puesto = 1; puesto <= esperado.size(); puesto++) {
+				Liga l = esperado.get(puesto - 1);
+				assertSame(l, indice.enPosicion(puesto, true));
+				assertSame(l, indice.enPosicion(esperado.size() + 1 - puesto, false));
+				assertEquals(puesto, indice.posicionDe(l, true));
+				assertEquals(esperado.size() + 1 - puesto, indice.posicionDe(l, false));
+			}
+		}
+		assertEquals(0, indice.posicionDe(heroes.get(0), true));
+		assertThrows(IllegalArgumentException.class, () -> indice.enPosicion(0, true));
+		assertThrows(IllegalArgumentException.class, () -> indice.enPosicion(ligas.size() + 1, false));
+	}
+}
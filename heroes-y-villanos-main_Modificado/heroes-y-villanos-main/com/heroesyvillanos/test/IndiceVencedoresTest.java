@@ -0,0 +1,84 @@
+package com.heroesyvillanos.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.heroesyvillanos.*;
+
+class IndiceVencedoresTest {
+	
+	private Set<Competidor> vencedoresRecorriendo(List<Competidor> competidores, Competidor retador, Caracteristica c) {
+		Set<Competidor> vencedores = Collections.newSetFromMap(new IdentityHashMap<Competidor, Boolean>());
+		for (Competidor competidor : competidores) {
+			try {
+				if (competidor.esGanador(retador, c) > 0) {
+					vencedores.add(competidor);
+				}
+			} catch (Exception e) {
+				// Competidores del mismo tipo: no combaten
+			}
+		}
+		return vencedores;
+	}
+	
+	private void assertMismosVencedores(Set<Competidor> esperados, List<Competidor> obtenidos) {
+		Set<Competidor> conjunto = Collections.newSetFromMap(new IdentityHashMap<Competidor, Boolean>());
+		conjunto.addAll(obtenidos);
+		assertEquals(obtenidos.size(), conjunto.size());
+		assertEquals(esperados, conjunto);
+	}
+	
+	@Test
+	void testIgualARecorrerTodos() throws Exception {
+		List<Competidor> competidores = Planteles.competidores(new Random(11), 400, 5);
+		// Un personaje con valores fuera del rango de las claves se compara uno por uno
+		competidores.add(new Personaje("Grande", "Grande", new int[] {100_000, 2, 2, 2}, TipoCompetidor.VILLANO));
+		
+		IndiceVencedores indice = new IndiceVencedores();
+		indice.reconstruir(competidores);
+		assertEquals(competidores.size(), indice.size());
+		
+		for (Competidor retador : competidores) {
+			for (Caracteristica c : Caracteristica.values()) {
+				assertMismosVencedores(vencedoresRecorriendo(competidores, retador, c), indice.vencedoresContra(retador, c));
+			}
+		}
+	}
+	
+	@Test
+	void testActualizarLigas() throws Exception {
+		Personaje superman = new Personaje("Clark Kent", "Superman", new int[] {95, 100, 100, 85}, TipoCompetidor.HEROE);
+		Personaje joker = new Personaje("Jack Napier", "Jóker", new int[] {40, 30, 50, 80}, TipoCompetidor.VILLANO);
+		Personaje lex = new Personaje("Lex Luthor", "Lex", new int[] {30, 40, 40, 70}, TipoCompetidor.VILLANO);
+		Liga villanos = new Liga("Villanos", TipoCompetidor.VILLANO);
+		Liga todos = new Liga("Todos", TipoCompetidor.VILLANO);
+		todos.agregarCompetidorALiga(villanos);
+		
+		IndiceVencedores indice = new IndiceVencedores();
+		for (Competidor c : List.<Competidor>of(superman, joker, lex, villanos, todos)) {
+			indice.agregar(c);
+		}
+		Personaje debil = new Personaje("Débil", "Débil", new int[] {35, 35, 45, 75}, TipoCompetidor.HEROE);
+		assertMismosVencedores(Set.of(joker), indice.vencedoresContra(debil, Caracteristica.VELOCIDAD));
+		
+		// Al agregar a Jóker cambian los promedios de la liga y de la liga que la contiene
+		villanos.agregarCompetidorALiga(joker);
+		indice.actualizar(villanos);
+		indice.actualizar(todos);
+		assertMismosVencedores(Set.of(joker, villanos, todos), indice.vencedoresContra(debil, Caracteristica.VELOCIDAD));
+		
+		villanos.agregarCompetidorALiga(lex);
+		indice.actualizar(villanos);
+		indice.actualizar(todos);
+		assertEquals(5, indice.size());
+		assertMismosVencedores(Set.of(joker), indice.vencedoresContra(debil, Caracteristica.VELOCIDAD));
+		assertTrue(indice.vencedoresContra(superman, Caracteristica.FUERZA).isEmpty());
+	}
+}
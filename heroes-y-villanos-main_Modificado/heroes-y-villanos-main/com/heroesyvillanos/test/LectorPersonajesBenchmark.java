@@ -0,0 +1,84 @@
+package com.heroesyvillanos.test;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import com.heroesyvillanos.*;
+
+/**
+ * Benchmark de la carga de personajes: compara la lectura secuencial con la lectura en paralelo
+ * usando 1, 2, 4, ... hilos hasta la cantidad de procesadores disponibles.
+ * No es un test; se ejecuta con main. El primer argumento opcional es la cantidad de líneas (por defecto 2.000.000).
+ */
+public class LectorPersonajesBenchmark {
+	private static final int REPETICIONES = 5;
+
+	public static void main(String[] args) throws IOException {
+		int cantidadLineas = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+		Path archivo = generarArchivo(cantidadLineas);
+		try {
+			System.out.printf("Archivo de %d líneas (%d MB)%n", cantidadLineas, Files.size(archivo) / (1024 * 1024));
+			
+			long secuencial = medir(() -> {
+				try (InputStream in = Files.newInputStream(archivo)) {
+					return LectorPersonajes.leer(in);
+				}
+			});
+			imprimir("secuencial", secuencial, cantidadLineas, secuencial);
+			
+			int procesadores = Runtime.getRuntime().availableProcessors();
+			for (int hilos = 1; hilos <= procesadores; hilos *= 2) {
+				final int h = hilos;
+				long tiempo = medir(() -> LectorPersonajes.leerEnParalelo(archivo.toString(), h));
+				imprimir("paralelo x" + hilos, tiempo, cantidadLineas, secuencial);
+			}
+		} finally {
+			Files.delete(archivo);
+		}
+	}
+	
+	private interface Carga {
+		AlmacenPersonajes cargar() throws IOException;
+	}
+	
+	// Devuelve el mejor tiempo en nanosegundos, después de una corrida de calentamiento
+	private static long medir(Carga carga) throws IOException {
+		carga.cargar();
+		long mejor = Long.MAX_VALUE;
+		for (int i = 0; i < REPETICIONES; i++) {
+			long inicio = System.nanoTime();
+			carga.cargar();
+			mejor = Math.min(mejor, System.nanoTime() - inicio);
+		}
+		return mejor;
+	}
+	
+	private static void imprimir(String nombre, long nanos, int cantidadLineas, long nanosSecuencial) {
+		double segundos = nanos / 1e9;
+		System.out.printf("%-14s %8.1f ms %12.0f líneas/s  x%.2f%n",
+				nombre, nanos / 1e6, cantidadLineas / segundos, (double) nanosSecuencial / nanos);
+	}
+	
+	private static Path generarArchivo(int cantidadLineas) throws IOException {
+		Path archivo = Files.createTempFile("personajes-benchmark", ".in");
+		Random random = new Random(42);
+		try (BufferedWriter writer = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+			writer.write("Héroe/Villano, NombreReal, NombrePersonaje, Velocidad, Fuerza, Resistencia, Destreza");
+			writer.newLine();
+			for (int i = 0; i < cantidadLineas; i++) {
+				writer.write(random.nextBoolean() ? "Heroe" : "Villano");
+				writer.write(", Nombre Real " + i + ", Personaje " + i);
+				for (int c = 0; c < Caracteristica.values().length; c++) {
+					writer.write(", " + (1 + random.nextInt(100)));
+				}
+				writer.newLine();
+			}
+		}
+		return archivo;
+	}
+}
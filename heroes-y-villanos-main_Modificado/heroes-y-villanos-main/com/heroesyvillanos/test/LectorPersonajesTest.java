@@ -0,0 +1,99 @@
+package com.heroesyvillanos.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+import com.heroesyvillanos.*;
+
+class LectorPersonajesTest {
+	
+	private static final String CABECERA = "Héroe/Villano, NombreReal, NombrePersonaje, Velocidad, Fuerza, Resistencia, Destreza\n";
+	
+	private InputStream flujo(String contenido) {
+		return new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	@Test
+	void testLecturaNormal() throws IOException {
+		String contenido = CABECERA
+				+ "Heroe, Clark Kent, Superman, 95, 100, 100, 85\r\n"
+				+ "Villano,Thanos,Thanos,70,100,100,80\n"
+				+ "\n"
+				+ "Heroe, Diana Prince, Wonder Woman, 90, 95, 95, 90";
+		
+		AlmacenPersonajes almacen = LectorPersonajes.leer(flujo(contenido));
+		
+		assertEquals(3, almacen.getCantidad());
+		Personaje superman = almacen.getPersonaje(0);
+		assertEquals("Clark Kent", superman.getNombre());
+		assertEquals("Superman", superman.getNombreFantasia());
+		assertEquals(TipoCompetidor.HEROE, superman.isTipoCompetidor());
+		assertEquals(85, superman.getPromedioCaracteristica(Caracteristica.DESTREZA));
+		assertEquals(TipoCompetidor.VILLANO, almacen.getPersonaje(1).isTipoCompetidor());
+		assertEquals("Wonder Woman", almacen.getPersonaje(2).getNombreFantasia());
+	}
+	
+	@Test
+	void testErrorIndicaLineaYColumna() throws IOException {
+		String contenido = CABECERA
+				+ "Heroe, Clark Kent, Superman, 95, 100, 100, 85\n"
+				+ "Heroe, Bruce Wayne, Batman, 80, 8x, 90, 95\n";
+		
+		try {
+			LectorPersonajes.leer(flujo(contenido));
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().startsWith("Línea 3, columna 34"), e.getMessage());
+			return;
+		}
+		fail();
+	}
+	
+	@Test
+	void testErrorTipoYCampos() throws IOException {
+		assertThrows(IllegalArgumentException.class, () -> LectorPersonajes.leer(flujo(CABECERA + "Antiheroe, a, b, 1, 2, 3, 4\n")));
+		assertThrows(IllegalArgumentException.class, () -> LectorPersonajes.leer(flujo(CABECERA + "Heroe, a, b, 1, 2, 3\n")));
+		assertThrows(IllegalArgumentException.class, () -> LectorPersonajes.leer(flujo(CABECERA + "Heroe, a, , 1, 2, 3, 4\n")));
+	}
+	
+	@Test
+	void testLecturaEnParaleloIgualASecuencial() throws IOException {
+		StringBuilder sb = new StringBuilder(CABECERA);
+		for (int i = 0; i < 500; i++) {
+			sb.append(i % 2 == 0 ? "Heroe" : "Villano").append(", Nombre ").append(i).append(", Fantasia ").append(i)
+				.append(", ").append(i).append(", ").append(i + 1).append(", ").append(i + 2).append(", ").append(i + 3).append("\n");
+		}
+		Path archivo = Files.createTempFile("personajes", ".in");
+		try {
+			Files.write(archivo, sb.toString().getBytes(StandardCharsets.UTF_8));
+			
+			AlmacenPersonajes secuencial = LectorPersonajes.leer(flujo(sb.toString()));
+			AlmacenPersonajes paralelo = LectorPersonajes.leerEnParalelo(archivo.toString(), 8);
+			
+			assertEquals(secuencial.getCantidad(), paralelo.getCantidad());
+			for (int id = 0; id < secuencial.getCantidad(); id++) {
+				assertEquals(secuencial.getPersonaje(id).toFileLine(), paralelo.getPersonaje(id).toFileLine());
+				assertEquals(id, paralelo.getPersonaje(id).getIdAlmacen());
+			}
+			
+			//El error se informa con la línea del archivo completo
+			sb.append("Heroe, a, b, 1, 2, x, 4\n");
+			Files.write(archivo, sb.toString().getBytes(StandardCharsets.UTF_8));
+			try {
+				LectorPersonajes.leerEnParalelo(archivo.toString(), 8);
+				fail();
+			} catch (IllegalArgumentException e) {
+				assertTrue(e.getMessage().startsWith("Línea 502,"), e.getMessage());
+			}
+		} finally {
+			Files.delete(archivo);
+		}
+	}
+}
@@ -5,6 +5,8 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
 
@@ -230,5 +232,152 @@ class LigaTest {
 		}
 		fail();
 	}
-
+	
+	@Test
+	void testAcumuladosLigaDeLigas() {
+		TipoCompetidor tipo = TipoCompetidor.HEROE;
+		Competidor comp_1 = new Personaje("peter", "spider-man", new int[] {10, 10, 10, 10}, tipo);
+		Competidor comp_2 = new Personaje("tony", "iron-man", new int[] {20, 20, 20, 20}, tipo);
+		Competidor comp_3 = new Personaje("cap", "cap-america", new int[] {60, 60, 60, 60}, tipo);
+		
+		try {
+			Liga liga = new Liga("Avengers", tipo);
+			Liga ligaDeLigas = new Liga("Marvel", tipo);
+			ligaDeLigas.agregarCompetidorALiga(liga);
+			
+			//Se agregan personajes a la sub-liga cuando ya pertenece a otra liga
+			liga.agregarCompetidorALiga(comp_1);
+			liga.agregarCompetidorALiga(comp_2);
+			assertEquals(2, ligaDeLigas.getCantidadCompetidores());
+			assertEquals(15, ligaDeLigas.getPromedioCaracteristica(Caracteristica.FUERZA));
+			
+			ligaDeLigas.agregarCompetidorALiga(comp_3);
+			assertEquals(3, ligaDeLigas.getCantidadCompetidores());
+			assertEquals(90, ligaDeLigas.getSumaCaracteristica(Caracteristica.FUERZA));
+			assertEquals(30, ligaDeLigas.getPromedioCaracteristica(Caracteristica.FUERZA));
+			
+			//Un cambio en un personaje llega a todas las ligas que lo contienen
+			((Personaje) comp_1).getCaracteristicas().put(Caracteristica.FUERZA, 40);
+			assertEquals(30, liga.getPromedioCaracteristica(Caracteristica.FUERZA));
+			assertEquals(40, ligaDeLigas.getPromedioCaracteristica(Caracteristica.FUERZA));
+		}
+		catch(Exception e) {
+			fail();
+		}
+	}
+	
+	@Test
+	void testRecorrerCompetidores() {
+		TipoCompetidor tipo = TipoCompetidor.HEROE;
+		Competidor comp_1 = new Personaje("peter", "spider-man", new int[] {10, 10, 10, 10}, tipo);
+		Competidor comp_2 = new Personaje("tony", "iron-man", new int[] {10, 10, 10, 10}, tipo);
+		Competidor comp_3 = new Personaje("cap", "cap-america", new int[] {10, 10, 10, 10}, tipo);
+		
+		try {
+			Liga liga = new Liga("Avengers", tipo);
+			liga.agregarCompetidorALiga(comp_1);
+			liga.agregarCompetidorALiga(comp_2);
+			Liga ligaDeLigas = new Liga("Marvel", tipo);
+			ligaDeLigas.agregarCompetidorALiga(liga);
+			ligaDeLigas.agregarCompetidorALiga(comp_3);
+			
+			//Cada sub-liga aparece antes que sus miembros
+			List<Competidor> esperados = List.of(liga, comp_1, comp_2, comp_3);
+			assertEquals(esperados, ligaDeLigas.getCompetidores());
+			assertEquals(esperados, ligaDeLigas.streamCompetidores().collect(Collectors.toList()));
+			
+			//El recorrido se corta cuando el visitante devuelve false
+			List<Competidor> vistos = new ArrayList<Competidor>();
+			assertFalse(ligaDeLigas.recorrerCompetidores(c -> vistos.add(c) && c != comp_1));
+			assertEquals(List.of(liga, comp_1), vistos);
+			
+			//Una liga no puede agregar a una liga que ya la contiene
+			assertThrows(Exception.class, () -> liga.agregarCompetidorALiga(ligaDeLigas));
+		}
+		catch(Exception e) {
+			fail();
+		}
+	}
+	
+	@Test
+	void testConsultasDeAncestros() {
+		TipoCompetidor tipo = TipoCompetidor.HEROE;
+		Personaje comp_1 = new Personaje("peter", "spider-man", new int[] {10, 10, 10, 10}, tipo);
+		Personaje comp_2 = new Personaje("tony", "iron-man", new int[] {10, 10, 10, 10}, tipo);
+		
+		try {
+			Liga liga = new Liga("Avengers", tipo);
+			liga.agregarCompetidorALiga(comp_1);
+			Liga ligaDeLigas = new Liga("Marvel", tipo);
+			ligaDeLigas.agregarCompetidorALiga(liga);
+			
+			assertTrue(ligaDeLigas.esAncestroDe(liga));
+			assertTrue(ligaDeLigas.contienePersonaje(comp_1));
+			assertFalse(ligaDeLigas.contienePersonaje(comp_2));
+			assertFalse(liga.esAncestroDe(ligaDeLigas));
+			assertEquals(1, liga.getProfundidad());
+			
+			//Un personaje que ya pertenece a una liga no puede formar parte de otra
+			List<Competidor> competidores = new ArrayList<Competidor>();
+			competidores.add(comp_1);
+			assertThrows(Exception.class, () -> new Liga("Otra", competidores, tipo));
+		}
+		catch(Exception e) {
+			fail();
+		}
+	}
+	
+	@Test
+	void testEsGanadorIgualAComparacionCircular() throws Exception {
+		Random random = new Random(7);
+		Caracteristica[] carac_values = Caracteristica.values();
+		for (int i = 0; i < 2000; i++) {
+			// Valores chicos para forzar empates, y algunos fuera del rango de las claves empaquetadas
+			int limite = i % 10 == 0 ? 200_000 : 4;
+			Personaje heroe = new Personaje("h", "h", valoresAlAzar(random, limite), TipoCompetidor.HEROE);
+			Liga villanos = new Liga("v", TipoCompetidor.VILLANO);
+			villanos.agregarCompetidorALiga(new Personaje("v1", "v1", valoresAlAzar(random, limite), TipoCompetidor.VILLANO));
+			villanos.agregarCompetidorALiga(new Personaje("v2", "v2", valoresAlAzar(random, limite), TipoCompetidor.VILLANO));
+			
+			for (Caracteristica c : carac_values) {
+				int[] promediosHeroe = new int[carac_values.length];
+				int[] promediosVillanos = new int[carac_values.length];
+				for (Caracteristica car : carac_values) {
+					promediosHeroe[car.ordinal()] = heroe.getPromedioCaracteristica(car);
+					promediosVillanos[car.ordinal()] = villanos.getPromedioCaracteristica(car);
+				}
+				assertEquals(Integer.signum(comparacionCircular(promediosHeroe, promediosVillanos, c)), Integer.signum(heroe.esGanador(villanos, c)));
+				assertEquals(Integer.signum(comparacionCircular(promediosVillanos, promediosHeroe, c)), Integer.signum(villanos.esGanador(heroe, c)));
+			}
+		}
+		
+		// Las claves se actualizan cuando cambian los valores
+		Personaje heroe = new Personaje("h", "h", new int[] {10, 10, 10, 10}, TipoCompetidor.HEROE);
+		Personaje villano = new Personaje("v", "v", new int[] {10, 10, 10, 11}, TipoCompetidor.VILLANO);
+		Liga liga = new Liga("l", TipoCompetidor.HEROE);
+		liga.agregarCompetidorALiga(heroe);
+		assertTrue(liga.esGanador(villano, Caracteristica.VELOCIDAD) < 0);
+		heroe.getCaracteristicas().put(Caracteristica.DESTREZA, 12);
+		assertTrue(heroe.esGanador(villano, Caracteristica.VELOCIDAD) > 0);
+		assertTrue(liga.esGanador(villano, Caracteristica.VELOCIDAD) > 0);
+	}
+	
+	private int[] valoresAlAzar(Random random, int limite) {
+		int[] valores = new int[Caracteristica.values().length];
+		for (int i = 0; i < valores.length; i++) {
+			valores[i] = random.nextInt(limite);
+		}
+		return valores;
+	}
+	
+	private int comparacionCircular(int[] promedios1, int[] promedios2, Caracteristica c) {
+		for (int i = 0; i < promedios1.length; i++) {
+			int actual = (c.ordinal() + i) % promedios1.length;
+			int result = Integer.compare(promedios1[actual], promedios2[actual]);
+			if (result != 0) {
+				return result;
+			}
+		}
+		return 0;
+	}
 }
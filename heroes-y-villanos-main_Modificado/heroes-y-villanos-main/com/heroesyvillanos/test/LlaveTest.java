@@ -0,0 +1,74 @@
+package com.heroesyvillanos.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.heroesyvillanos.*;
+
+class LlaveTest {
+	
+	private Personaje personaje(String nombre, int valor, TipoCompetidor tipo) {
+		return new Personaje(nombre, nombre, new int[] {valor, valor, valor, valor}, tipo);
+	}
+	
+	@Test
+	void testEliminacionSimple() throws Exception {
+		Personaje a = personaje("A", 90, TipoCompetidor.HEROE);
+		Personaje b = personaje("B", 50, TipoCompetidor.HEROE);
+		Personaje x = personaje("X", 70, TipoCompetidor.VILLANO);
+		Personaje y = personaje("Y", 30, TipoCompetidor.VILLANO);
+		
+		List<Competidor> sembrados = Llave.sembrar(List.<Competidor>of(y, b, x, a), new Ordenamiento());
+		assertEquals(List.of(a, x, b, y), sembrados);
+		
+		Llave llave = new Llave(sembrados, Llave.Formato.ELIMINACION_SIMPLE);
+		StringBuilder registro = new StringBuilder();
+		List<Competidor> ganadores = llave.jugar(ronda -> Caracteristica.FUERZA, registro);
+		
+		// Ronda 1: A contra Y y B contra X; ronda 2: A contra X
+		assertEquals(List.of(a), ganadores);
+		assertEquals(2, llave.getCantidadRondas());
+		assertEquals(3, llave.getCantidadCombates());
+		assertTrue(registro.toString().startsWith("Ronda 1 (FUERZA)\n#1 \"A, A\" vs #4 \"Y, Y\" -> gana #1\n"));
+	}
+	
+	@Test
+	void testEliminacionDobleDeterminista() throws Exception {
+		Random random = new Random(2);
+		List<Competidor> competidores = new ArrayList<Competidor>();
+		// Suficientes combates por ronda para que se resuelvan en paralelo
+		for (int i = 0; i < 20_000; i++) {
+			int[] valores = new int[Caracteristica.values().length];
+			for (int c = 0; c < valores.length; c++) {
+				valores[c] = random.nextInt(10);
+			}
+			TipoCompetidor tipo = i % 3 == 0 ? TipoCompetidor.VILLANO : TipoCompetidor.HEROE;
+			competidores.add(new Personaje("n" + i, "f" + i, valores, tipo));
+		}
+		Caracteristica[] caracteristicas = Caracteristica.values();
+		
+		Llave llave = new Llave(Llave.sembrar(competidores, 7L), Llave.Formato.ELIMINACION_DOBLE);
+		StringBuilder registro = new StringBuilder();
+		List<Competidor> ganadores = llave.jugar(ronda -> caracteristicas[ronda % caracteristicas.length], registro);
+		StringBuilder otroRegistro = new StringBuilder();
+		List<Competidor> otrosGanadores = new Llave(Llave.sembrar(competidores, 7L), Llave.Formato.ELIMINACION_DOBLE)
+				.jugar(ronda -> caracteristicas[ronda % caracteristicas.length], otroRegistro);
+		
+		assertEquals(registro.toString(), otroRegistro.toString());
+		assertEquals(ganadores, otrosGanadores);
+		assertFalse(ganadores.isEmpty());
+		Personaje primero = (Personaje) ganadores.get(0);
+		for (Competidor c : ganadores) {
+			assertEquals(primero.isTipoCompetidor(), ((Personaje) c).isTipoCompetidor());
+		}
+		// Cada eliminado perdió exactamente dos veces, y cada ganador a lo sumo una
+		long eliminados = competidores.size() - ganadores.size();
+		assertTrue(llave.getCantidadCombates() >= 2 * eliminados);
+		assertTrue(llave.getCantidadCombates() <= 2 * eliminados + ganadores.size());
+	}
+}
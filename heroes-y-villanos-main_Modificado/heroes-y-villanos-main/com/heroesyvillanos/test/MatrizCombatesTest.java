@@ -0,0 +1,55 @@
+package com.heroesyvillanos.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.heroesyvillanos.*;
+
+class MatrizCombatesTest {
+	
+	@Test
+	void testIgualAEsGanador() throws Exception {
+		Random random = new Random(3);
+		// Tamaños que no son múltiplos de 32 ni de los bloques, para probar los bordes
+		List<Competidor> heroes = Planteles.competidores(random, 130, 4, TipoCompetidor.HEROE);
+		List<Competidor> villanos = Planteles.competidores(random, 2100, 4, TipoCompetidor.VILLANO);
+		Liga liga = new Liga("Liga", TipoCompetidor.VILLANO);
+		liga.agregarCompetidorALiga(new Personaje("n", "f", new int[] {1, 100_000, 1, 1}, TipoCompetidor.VILLANO));
+		villanos.add(liga);
+		
+		MatrizCombates matriz = MatrizCombates.calcular(heroes, villanos, Caracteristica.FUERZA);
+		
+		assertEquals(130, matriz.getCantidadFilas());
+		assertEquals(2101, matriz.getCantidadColumnas());
+		for (int i = 0; i < heroes.size(); i++) {
+			int victorias = 0;
+			for (int j = 0; j < villanos.size(); j++) {
+				int esperado = Integer.signum(heroes.get(i).esGanador(villanos.get(j), Caracteristica.FUERZA));
+				int celda = matriz.getResultado(i, j);
+				assertEquals(esperado > 0 ? MatrizCombates.GANA_FILA : (esperado < 0 ? MatrizCombates.GANA_COLUMNA : MatrizCombates.EMPATE), celda);
+				if (celda == MatrizCombates.GANA_FILA) {
+					victorias++;
+				}
+			}
+			assertEquals(victorias, matriz.contarEnFila(i, MatrizCombates.GANA_FILA));
+			assertEquals(villanos.size(), matriz.contarEnFila(i, MatrizCombates.GANA_FILA)
+					+ matriz.contarEnFila(i, MatrizCombates.GANA_COLUMNA) + matriz.contarEnFila(i, MatrizCombates.EMPATE));
+		}
+		assertEquals(130, matriz.contarEnColumna(2100, MatrizCombates.GANA_COLUMNA));
+	}
+	
+	@Test
+	void testMismoTipo() {
+		Random random = new Random(5);
+		List<Competidor> heroes = Planteles.competidores(random, 3, 4, TipoCompetidor.HEROE);
+		List<Competidor> mezclados = Planteles.competidores(random, 3, 4, TipoCompetidor.VILLANO);
+		mezclados.addAll(Planteles.competidores(random, 1, 4, TipoCompetidor.HEROE));
+		
+		assertThrows(IllegalArgumentException.class, () -> MatrizCombates.calcular(heroes, heroes, Caracteristica.FUERZA));
+		assertThrows(IllegalArgumentException.class, () -> MatrizCombates.calcular(heroes, mezclados, Caracteristica.FUERZA));
+	}
+}
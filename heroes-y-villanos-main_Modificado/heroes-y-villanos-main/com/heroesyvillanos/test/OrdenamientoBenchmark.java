@@ -0,0 +1,64 @@
+package com.heroesyvillanos.test;
+
+import java.util.Random;
+
+import com.heroesyvillanos.*;
+
+/**
+ * Benchmark del ordenamiento de personajes: compara el orden secuencial con el paralelo para tamaños crecientes,
+ * para ubicar el punto a partir del cual conviene ordenar en paralelo (Ordenamiento.UMBRAL_PARALELO_POR_DEFECTO).
+ * Se mide con valores de 1 a 100, que entran en una clave long, y con valores de todo el rango de int, que no entran
+ * y se ordenan con comparador.
+ * No es un test; se ejecuta con main. El primer argumento opcional es la cantidad máxima de personajes (por defecto 4.000.000).
+ */
+public class OrdenamientoBenchmark {
+	private static final int REPETICIONES = 5;
+
+	public static void main(String[] args) throws Exception {
+		int maximo = args.length > 0 ? Integer.parseInt(args[0]) : 4_000_000;
+		System.out.printf("%d procesadores%n", Runtime.getRuntime().availableProcessors());
+		System.out.printf("%-12s %-10s %12s %12s %8s%n", "personajes", "valores", "secuencial", "paralelo", "x");
+		for (int cantidad = 1 << 10; cantidad <= maximo; cantidad *= 4) {
+			comparar(generarAlmacen(cantidad, true), cantidad, "1..100");
+			comparar(generarAlmacen(cantidad, false), cantidad, "int");
+		}
+	}
+
+	private static void comparar(AlmacenPersonajes almacen, int cantidad, String valores) {
+		Ordenamiento secuencial = new Ordenamiento().setearUmbralParalelo(Integer.MAX_VALUE);
+		Ordenamiento paralelo = new Ordenamiento().setearUmbralParalelo(0);
+		long nanosSecuencial = medir(almacen, secuencial);
+		long nanosParalelo = medir(almacen, paralelo);
+		if (!almacen.ordenar(secuencial).equals(almacen.ordenar(paralelo))) {
+			throw new IllegalStateException("El orden paralelo no coincide con el secuencial");
+		}
+		System.out.printf("%-12d %-10s %9.2f ms %9.2f ms %7.2fx%n", cantidad, valores,
+				nanosSecuencial / 1e6, nanosParalelo / 1e6, (double) nanosSecuencial / nanosParalelo);
+	}
+
+	// Devuelve el mejor tiempo en nanosegundos, después de una corrida de calentamiento
+	private static long medir(AlmacenPersonajes almacen, Ordenamiento ordenamiento) {
+		almacen.ordenar(ordenamiento);
+		long mejor = Long.MAX_VALUE;
+		for (int i = 0; i < REPETICIONES; i++) {
+			long inicio = System.nanoTime();
+			almacen.ordenar(ordenamiento);
+			mejor = Math.min(mejor, System.nanoTime() - inicio);
+		}
+		return mejor;
+	}
+
+	private static AlmacenPersonajes generarAlmacen(int cantidad, boolean valoresChicos) throws Exception {
+		Random random = new Random(42);
+		AlmacenPersonajes almacen = new AlmacenPersonajes();
+		for (int i = 0; i < cantidad; i++) {
+			int[] valores = new int[Caracteristica.values().length];
+			for (int c = 0; c < valores.length; c++) {
+				valores[c] = valoresChicos ? 1 + random.nextInt(100) : random.nextInt();
+			}
+			TipoCompetidor tipo = random.nextBoolean() ? TipoCompetidor.HEROE : TipoCompetidor.VILLANO;
+			almacen.agregar(new Personaje("Nombre Real " + i, "Personaje " + i, valores, tipo));
+		}
+		return almacen;
+	}
+}
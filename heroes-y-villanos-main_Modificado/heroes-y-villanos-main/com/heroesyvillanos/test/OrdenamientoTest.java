@@ -3,10 +3,13 @@ package com.heroesyvillanos.test;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 import com.heroesyvillanos.*;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 class OrdenamientoTest {
 	
@@ -50,4 +53,47 @@ class OrdenamientoTest {
         List<Caracteristica> resultadoEsperado = Arrays.asList(Caracteristica.FUERZA, Caracteristica.VELOCIDAD);
         assertEquals(resultadoEsperado, ordenamiento.getOrdenCaracteristicas(), "El orden de las características debería ser [FUERZA, VELOCIDAD]");
     }
+
+    @Test
+    void testOrdenarIgualAlComparador() {
+    	Random random = new Random(8);
+    	List<Personaje> personajes = new ArrayList<Personaje>();
+    	for (int i = 0; i < 2000; i++) {
+    		// Rangos muy distintos: fuerza y destreza usan 32 bits cada una, así que juntas con otra no entran en un long
+    		personajes.add(new Personaje("n" + i, "f" + i, new int[] {random.nextInt(4), random.nextInt(),
+    				random.nextInt(3), random.nextInt()}, TipoCompetidor.HEROE));
+    	}
+    	List<List<Caracteristica>> criteriosPosibles = Arrays.asList(
+    			Arrays.asList(Caracteristica.VELOCIDAD),
+    			Arrays.asList(Caracteristica.RESISTENCIA, Caracteristica.VELOCIDAD, Caracteristica.RESISTENCIA),
+    			Arrays.asList(Caracteristica.VELOCIDAD, Caracteristica.FUERZA, Caracteristica.RESISTENCIA, Caracteristica.DESTREZA),
+    			Arrays.asList(Caracteristica.DESTREZA, Caracteristica.FUERZA, Caracteristica.VELOCIDAD));
+    	for (List<Caracteristica> criterios : criteriosPosibles) {
+    		Ordenamiento ordenamiento = new Ordenamiento().setearOrdenCaracteristicas(criterios);
+    		List<Personaje> esperado = new ArrayList<Personaje>(personajes);
+    		Collections.sort(esperado, ordenamiento);
+    		assertEquals(esperado, ordenamiento.ordenar(personajes));
+    	}
+    }
+    
+    @Test
+    void testOrdenarEnParaleloIgualAlSecuencial() {
+    	Random random = new Random(13);
+    	List<Personaje> personajes = new ArrayList<Personaje>();
+    	for (int i = 0; i < 5000; i++) {
+    		// Muchos empates en velocidad y resistencia; fuerza y destreza con todo el rango de int
+    		personajes.add(new Personaje("n" + i, "f" + i, new int[] {random.nextInt(4), random.nextInt(),
+    				random.nextInt(3), random.nextInt()}, TipoCompetidor.HEROE));
+    	}
+    	List<List<Caracteristica>> criteriosPosibles = Arrays.asList(
+    			Arrays.asList(Caracteristica.RESISTENCIA, Caracteristica.VELOCIDAD),
+    			Arrays.asList(Caracteristica.FUERZA, Caracteristica.RESISTENCIA),
+    			Arrays.asList(Caracteristica.DESTREZA, Caracteristica.FUERZA, Caracteristica.VELOCIDAD));
+    	for (List<Caracteristica> criterios : criteriosPosibles) {
+    		Ordenamiento secuencial = new Ordenamiento().setearOrdenCaracteristicas(criterios).setearUmbralParalelo(Integer.MAX_VALUE);
+    		Ordenamiento paralelo = new Ordenamiento().setearOrdenCaracteristicas(criterios).setearUmbralParalelo(0);
+    		assertEquals(secuencial.ordenar(personajes), paralelo.ordenar(personajes));
+    	}
+    	assertThrows(IllegalArgumentException.class, () -> new Ordenamiento().setearUmbralParalelo(-1));
+    }
 }
@@ -90,4 +90,43 @@ class PersonajeTest {
 		assertEquals(1, p.getCantidadCompetidores());		
 	}
 	
-}
\ No newline at end of file
+	@Test
+	void testVistaCaracteristicas() {
+		int[] valores = {10, 20, 30, 40};
+		Personaje p = new Personaje("peter", "spider-man", valores, TipoCompetidor.HEROE);
+		
+		//El array pasado se copia, modificarlo no afecta al personaje
+		valores[0] = 99;
+		assertEquals(10, p.getPromedioCaracteristica(Caracteristica.VELOCIDAD));
+		
+		//La vista refleja los valores y escribe sobre ellos
+		Map<Caracteristica, Integer> vista = p.getCaracteristicas();
+		assertEquals(4, vista.size());
+		assertEquals(Integer.valueOf(20), vista.get(Caracteristica.FUERZA));
+		vista.put(Caracteristica.FUERZA, 25);
+		assertEquals(25, p.getSumaCaracteristica(Caracteristica.FUERZA));
+		
+		//Caso faltan caracteristicas en el array
+		try {
+			new Personaje("peter", "spider-man", new int[] {10, 20}, TipoCompetidor.HEROE);
+		} catch (IllegalArgumentException e) {
+			return;
+		}
+		fail();
+	}
+	
+	@Test
+	void testWriteTo() throws Exception {
+		Personaje p = new Personaje("Clark Kent", "Superman", new int[] {95, 0, 100, -7}, TipoCompetidor.HEROE);
+		Liga liga = new Liga("Liga de la Justicia", TipoCompetidor.HEROE);
+		liga.agregarCompetidorALiga(p);
+		StringBuilder sb = new StringBuilder();
+		
+		p.writeTo(sb);
+		sb.append('\n');
+		liga.writeTo(sb);
+		
+		assertEquals("Heroe, Clark Kent, Superman, 95, 0, 100, -7\nLiga de la Justicia, Superman", sb.toString());
+		assertEquals("Heroe, Clark Kent, Superman, 95, 0, 100, -7", p.toFileLine());
+	}
+}
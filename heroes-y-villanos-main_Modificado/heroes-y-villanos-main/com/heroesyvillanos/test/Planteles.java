@@ -0,0 +1,75 @@
+package com.heroesyvillanos.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.heroesyvillanos.*;
+
+/**
+ * Planteles de competidores al azar compartidos por los tests que comparan un cálculo contra combatir
+ * o comparar uno por uno. Con valores chicos hay muchos empates, que es donde suelen fallar los cálculos.
+ */
+final class Planteles {
+
+	private Planteles() {
+	}
+
+	/**
+	 * @param random   Generador a usar; con la misma semilla se obtiene el mismo plantel.
+	 * @param cantidad Cantidad de personajes.
+	 * @param valores  Cantidad de valores distintos por característica, de 0 a valores - 1.
+	 * @return Personajes "n{i}"/"f{i}" con valores y tipo al azar.
+	 */
+	static List<Personaje> personajes(Random random, int cantidad, int valores) {
+		List<Personaje> personajes = new ArrayList<Personaje>();
+		for (int i = 0; i < cantidad; i++) {
+			personajes.add(personaje(random, i, valores, null));
+		}
+		return personajes;
+	}
+
+	/**
+	 * Igual que personajes, como lista de competidores.
+	 */
+	static List<Competidor> competidores(Random random, int cantidad, int valores) {
+		return new ArrayList<Competidor>(personajes(random, cantidad, valores));
+	}
+
+	/**
+	 * Igual que competidores, con todos los personajes del tipo dado.
+	 */
+	static List<Competidor> competidores(Random random, int cantidad, int valores, TipoCompetidor tipo) {
+		List<Competidor> competidores = new ArrayList<Competidor>();
+		for (int i = 0; i < cantidad; i++) {
+			competidores.add(personaje(random, i, valores, tipo));
+		}
+		return competidores;
+	}
+
+	/**
+	 * Agrega competidores sin claves de rotación, que los cálculos combaten uno por uno: un villano con
+	 * una velocidad fuera de rango y una liga de héroes con un único miembro.
+	 *
+	 * @param competidores Lista a la que se agregan.
+	 * @throws Exception Si la liga rechaza a su miembro.
+	 */
+	static void agregarSinClaves(List<Competidor> competidores) throws Exception {
+		competidores.add(new Personaje("Grande", "Grande", new int[] {100_000, 1, 1, 1}, TipoCompetidor.VILLANO));
+		Liga liga = new Liga("Liga", TipoCompetidor.HEROE);
+		liga.agregarCompetidorALiga(new Personaje("n", "f", new int[] {2, 2, 2, 2}, TipoCompetidor.HEROE));
+		competidores.add(liga);
+	}
+
+	// Con tipo null, el tipo también se elige al azar
+	private static Personaje personaje(Random random, int i, int valores, TipoCompetidor tipo) {
+		int[] caracteristicas = new int[Caracteristica.values().length];
+		for (int c = 0; c < caracteristicas.length; c++) {
+			caracteristicas[c] = random.nextInt(valores);
+		}
+		if (tipo == null) {
+			tipo = random.nextBoolean() ? TipoCompetidor.HEROE : TipoCompetidor.VILLANO;
+		}
+		return new Personaje("n" + i, "f" + i, caracteristicas, tipo);
+	}
+}
@@ -0,0 +1,41 @@
+package com.heroesyvillanos.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.heroesyvillanos.*;
+
+class RankingTest {
+	
+	private void assertIgualAOrdenarTodo(List<Competidor> competidores, Ordenamiento ordenamiento, int k) {
+		List<Competidor> ordenados = new ArrayList<Competidor>(competidores);
+		Collections.sort(ordenados, ordenamiento);
+		assertEquals(ordenados.subList(0, Math.min(k, ordenados.size())), Ranking.primeros(competidores, ordenamiento, true, k));
+		Collections.reverse(ordenados);
+		assertEquals(ordenados.subList(0, Math.min(k, ordenados.size())), Ranking.primeros(competidores, ordenamiento, false, k));
+	}
+	
+	@Test
+	void testIgualAOrdenarTodo() {
+		List<Competidor> competidores = Planteles.competidores(new Random(1), 500, 6);
+		Ordenamiento ordenamiento = new Ordenamiento().setearOrdenCaracteristicas(
+				Arrays.asList(Caracteristica.DESTREZA, Caracteristica.FUERZA));
+		for (int k : new int[] {0, 1, 20, 499, 500, 800}) {
+			assertIgualAOrdenarTodo(competidores, ordenamiento, k);
+		}
+		assertThrows(IllegalArgumentException.class, () -> Ranking.primeros(competidores, ordenamiento, true, -1));
+	}
+	
+	@Test
+	void testListaGrandeEnParalelo() {
+		List<Competidor> competidores = Planteles.competidores(new Random(2), 100_000, 6);
+		assertIgualAOrdenarTodo(competidores, new Ordenamiento(), 50);
+	}
+}
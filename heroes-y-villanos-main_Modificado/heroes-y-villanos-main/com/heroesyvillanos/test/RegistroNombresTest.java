@@ -0,0 +1,100 @@
+package com.heroesyvillanos.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.heroesyvillanos.*;
+
+class RegistroNombresTest {
+
+	private Personaje personaje(String nombre, String nombreFantasia) {
+		return new Personaje(nombre, nombreFantasia, new int[] {1, 2, 3, 4}, TipoCompetidor.HEROE);
+	}
+
+	@Test
+	void testNormalizar() {
+		assertEquals("spider-man", RegistroNombres.normalizar("  Spider-Man \t"));
+		assertEquals(RegistroNombres.normalizar("IRON MAN"), RegistroNombres.normalizar("iron man"));
+	}
+
+	@Test
+	void testBuscarSinDistinguirMayusculas() throws Exception {
+		RegistroNombres registro = new RegistroNombres();
+		Personaje peter = personaje("Peter Parker", "Spider-Man");
+		Liga liga = new Liga("Avengers", TipoCompetidor.HEROE);
+		registro.registrarPersonaje(peter);
+		registro.registrarLiga(liga);
+
+		assertSame(peter, registro.buscarPersonaje(" spider-man "));
+		assertEquals(Arrays.asList(peter), registro.buscarPorNombreReal("PETER PARKER"));
+		assertSame(liga, registro.buscarLiga("avengers"));
+		assertTrue(registro.existePersonaje("SPIDER-MAN"));
+		assertFalse(registro.existePersonaje("Batman"));
+		assertFalse(registro.existeLiga("Liga de la Justicia"));
+		assertTrue(registro.buscarPorNombreReal("Bruce Wayne").isEmpty());
+	}
+
+	@Test
+	void testDuplicados() {
+		RegistroNombres registro = new RegistroNombres();
+		Personaje primero = personaje("Bruce Wayne", "Batman");
+		Personaje segundo = personaje("Dick Grayson", "batman");
+		Personaje mismoNombreReal = personaje("Bruce Wayne", "Batman Beyond");
+		registro.registrarPersonaje(primero);
+		registro.registrarPersonaje(segundo);
+		registro.registrarPersonaje(mismoNombreReal);
+
+		// Con el mismo nombre de fantasía se conserva el primero; el nombre real admite varios personajes
+		assertSame(primero, registro.buscarPersonaje("Batman"));
+		assertEquals(Arrays.asList(primero, mismoNombreReal), registro.buscarPorNombreReal("bruce wayne"));
+	}
+
+	@Test
+	void testReemplazar() throws Exception {
+		RegistroNombres registro = new RegistroNombres();
+		registro.registrarPersonaje(personaje("Clark Kent", "Superman"));
+		registro.registrarLiga(new Liga("Liga de la Justicia", TipoCompetidor.HEROE));
+
+		Personaje diana = personaje("Diana Prince", "Wonder Woman");
+		Liga amazonas = new Liga("Amazonas", TipoCompetidor.HEROE);
+		registro.reemplazarPersonajes(Arrays.asList(diana));
+		registro.reemplazarLigas(Arrays.asList(amazonas));
+
+		assertNull(registro.buscarPersonaje("Superman"));
+		assertTrue(registro.buscarPorNombreReal("Clark Kent").isEmpty());
+		assertNull(registro.buscarLiga("Liga de la Justicia"));
+		assertSame(diana, registro.buscarPersonaje("wonder woman"));
+		assertSame(amazonas, registro.buscarLiga("AMAZONAS"));
+	}
+
+	@Test
+	void testRenombrarActualizaLosIndices() {
+		RegistroNombres registro = new RegistroNombres();
+		AlmacenPersonajes almacen = new AlmacenPersonajes();
+		Personaje robin = personaje("Dick Grayson", "Robin");
+		Personaje batman = personaje("Bruce Wayne", "Batman");
+		almacen.agregar(robin);
+		almacen.agregar(batman);
+		registro.reemplazarPersonajes(almacen.getPersonajes());
+
+		List<Personaje> personajes = almacen.getPersonajes();
+		Personaje registrado = personajes.get(0);
+		registro.renombrarPersonaje(registrado, "Richard Grayson", "Nightwing");
+
+		assertEquals("Nightwing", registrado.getNombreFantasia());
+		assertNull(registro.buscarPersonaje("Robin"));
+		assertSame(registrado, registro.buscarPersonaje("nightwing"));
+		assertTrue(registro.buscarPorNombreReal("Dick Grayson").isEmpty());
+		assertEquals(Arrays.asList(registrado), registro.buscarPorNombreReal("Richard Grayson"));
+
+		// No se puede tomar el nombre de fantasía de otro personaje, y el registro queda como estaba
+		assertThrows(IllegalArgumentException.class,
+				() -> registro.renombrarPersonaje(registrado, "Richard Grayson", "BATMAN"));
+		assertSame(registrado, registro.buscarPersonaje("Nightwing"));
+		assertFalse(registrado == registro.buscarPersonaje("Batman"));
+	}
+}
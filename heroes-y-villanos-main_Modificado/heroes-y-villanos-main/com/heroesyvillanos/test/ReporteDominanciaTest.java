@@ -0,0 +1,49 @@
+package com.heroesyvillanos.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.heroesyvillanos.*;
+
+class ReporteDominanciaTest {
+	
+	@Test
+	void testIgualACombatirTodosContraTodos() throws Exception {
+		List<Competidor> competidores = Planteles.competidores(new Random(5), 300, 4);
+		// Competidores sin claves de rotación, de ambos tipos, que se combaten uno por uno
+		Planteles.agregarSinClaves(competidores);
+		competidores.add(new Personaje("Enorme", "Enorme", new int[] {1, 100_000, 1, 1}, TipoCompetidor.HEROE));
+		
+		ReporteDominancia reporte = ReporteDominancia.calcular(competidores);
+		
+		for (Caracteristica c : Caracteristica.values()) {
+			for (int i = 0; i < competidores.size(); i++) {
+				int victorias = 0, empates = 0, derrotas = 0;
+				for (Competidor rival : competidores) {
+					int resultado;
+					try {
+						resultado = competidores.get(i).esGanador(rival, c);
+					} catch (Exception e) {
+						// Mismo tipo: no combaten
+						continue;
+					}
+					if (resultado > 0) {
+						victorias++;
+					} else if (resultado < 0) {
+						derrotas++;
+					} else {
+						empates++;
+					}
+				}
+				assertEquals(victorias, reporte.getVictorias(i, c));
+				assertEquals(empates, reporte.getEmpates(i, c));
+				assertEquals(derrotas, reporte.getDerrotas(i, c));
+			}
+		}
+		assertEquals(competidores.size(), reporte.getLineas().size());
+	}
+}
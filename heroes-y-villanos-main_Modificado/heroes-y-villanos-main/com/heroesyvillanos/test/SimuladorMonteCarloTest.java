@@ -0,0 +1,70 @@
+package com.heroesyvillanos.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.heroesyvillanos.*;
+
+class SimuladorMonteCarloTest {
+	
+	@Test
+	void testParDeCompetidores() {
+		// Superman gana empezando por fuerza o resistencia; empezando por destreza empatan y decide la velocidad, que pierde
+		Personaje superman = new Personaje("Clark Kent", "Superman", new int[] {50, 100, 100, 80}, TipoCompetidor.HEROE);
+		Personaje zoom = new Personaje("Hunter Zolomon", "Zoom", new int[] {90, 40, 40, 80}, TipoCompetidor.VILLANO);
+		
+		SimuladorMonteCarlo.Estimacion exacta = SimuladorMonteCarlo.calcularExacto(superman, zoom);
+		assertEquals(0.5, exacta.getProbabilidadVictoria());
+		assertEquals(0.5, exacta.getProbabilidadDerrota());
+		assertEquals(0.5, exacta.getIntervaloVictoria()[0]);
+		assertEquals(0.5, exacta.getIntervaloVictoria()[1]);
+		
+		SimuladorMonteCarlo simulador = new SimuladorMonteCarlo(1);
+		SimuladorMonteCarlo.Estimacion simulada = simulador.simular(superman, zoom, 500_000);
+		assertEquals(500_000, simulada.getCombates());
+		double[] intervalo = simulada.getIntervaloVictoria();
+		assertTrue(intervalo[0] < 0.5 && 0.5 < intervalo[1]);
+		assertTrue(intervalo[1] - intervalo[0] < 0.01);
+		
+		// La misma semilla da el mismo resultado
+		assertEquals(simulada.getVictorias(), new SimuladorMonteCarlo(1).simular(superman, zoom, 500_000).getVictorias());
+		assertThrows(IllegalArgumentException.class, () -> simulador.simular(superman, superman, 10));
+		assertThrows(IllegalArgumentException.class, () -> simulador.simular(superman, zoom, 0));
+		assertThrows(IllegalArgumentException.class, () -> simulador.simular(superman, zoom, SimuladorMonteCarlo.MAX_COMBATES + 1));
+		assertThrows(IllegalArgumentException.class, () -> simulador.simular(superman, zoom, Long.MAX_VALUE));
+	}
+	
+	@Test
+	void testGrupoContraExacto() {
+		Random random = new Random(4);
+		List<Competidor> competidores = new ArrayList<Competidor>();
+		for (int i = 0; i < 20; i++) {
+			int[] valores = new int[Caracteristica.values().length];
+			for (int c = 0; c < valores.length; c++) {
+				valores[c] = random.nextInt(5);
+			}
+			TipoCompetidor tipo = i % 2 == 0 ? TipoCompetidor.HEROE : TipoCompetidor.VILLANO;
+			competidores.add(new Personaje("n" + i, "f" + i, valores, tipo));
+		}
+		
+		List<SimuladorMonteCarlo.Estimacion> exactas = SimuladorMonteCarlo.calcularExacto(competidores);
+		List<SimuladorMonteCarlo.Estimacion> simuladas = new SimuladorMonteCarlo(3).simular(competidores, 2_000_000);
+		
+		long total = 0;
+		for (int i = 0; i < competidores.size(); i++) {
+			assertEquals(4 * 10, exactas.get(i).getCombates());
+			double[] intervalo = simuladas.get(i).getIntervaloVictoria();
+			double exacta = exactas.get(i).getProbabilidadVictoria();
+			// Margen holgado para que la prueba no dependa de la suerte de una semilla
+			assertTrue(Math.abs(simuladas.get(i).getProbabilidadVictoria() - exacta) < 3 * (intervalo[1] - intervalo[0]));
+			total += simuladas.get(i).getCombates();
+		}
+		// Cada combate se cuenta para un héroe y un villano
+		assertEquals(2 * 2_000_000, total);
+	}
+}
@@ -0,0 +1,88 @@
+package com.heroesyvillanos.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.heroesyvillanos.*;
+
+class SnapshotJuegoTest {
+
+	@Test
+	void testGuardarYCargar() throws Exception {
+		AlmacenPersonajes almacen = new AlmacenPersonajes();
+		Personaje superman = new Personaje("Clark Kent", "Superman", new int[] {95, 100, 100, 85}, TipoCompetidor.HEROE);
+		Personaje flash = new Personaje("Barry Allen", "Flash", new int[] {100, 60, 70, 90}, TipoCompetidor.HEROE);
+		Personaje batman = new Personaje("Bruce Wayne", "Batman", new int[] {50, 60, 70, 100}, TipoCompetidor.HEROE);
+		Personaje joker = new Personaje("Jack Napier", "Jóker", new int[] {40, 30, 50, 80}, TipoCompetidor.VILLANO);
+		almacen.agregar(superman);
+		almacen.agregar(flash);
+		almacen.agregar(batman);
+		almacen.agregar(joker);
+
+		// La liga padre se crea antes que su sub-liga, así que la lista del juego no está en orden de construcción
+		Liga justicia = new Liga("Liga de la Justicia", TipoCompetidor.HEROE);
+		Liga rapidos = new Liga("Rápidos", Arrays.<Competidor>asList(flash), TipoCompetidor.HEROE);
+		justicia.agregarCompetidorALiga(superman);
+		justicia.agregarCompetidorALiga(rapidos);
+		Liga vacia = new Liga("Vacía", TipoCompetidor.VILLANO);
+
+		Path archivo = Files.createTempFile("juego", ".snapshot");
+		try {
+			SnapshotJuego.guardar(archivo.toString(), almacen, Arrays.asList(justicia, rapidos, vacia));
+			SnapshotJuego snapshot = SnapshotJuego.cargar(archivo.toString());
+
+			AlmacenPersonajes almacenCargado = snapshot.getAlmacenPersonajes();
+			assertEquals(4, almacenCargado.getCantidad());
+			Personaje jokerCargado = almacenCargado.getPersonaje(3);
+			assertEquals("Jóker", jokerCargado.getNombreFantasia());
+			assertEquals("Jack Napier", jokerCargado.getNombre());
+			assertEquals(TipoCompetidor.VILLANO, jokerCargado.isTipoCompetidor());
+			assertEquals(80, jokerCargado.getPromedioCaracteristica(Caracteristica.DESTREZA));
+
+			List<Liga> ligas = snapshot.getLigas();
+			assertEquals(3, ligas.size());
+			Liga justiciaCargada = ligas.get(0);
+			Liga rapidosCargada = ligas.get(1);
+			assertEquals("Liga de la Justicia", justiciaCargada.getNombreLiga());
+			assertEquals(2, justiciaCargada.getCantidadCompetidores());
+			assertEquals(justicia.getPromedioCaracteristica(Caracteristica.FUERZA), justiciaCargada.getPromedioCaracteristica(Caracteristica.FUERZA));
+			assertTrue(justiciaCargada.esAncestroDe(rapidosCargada));
+			assertSame(almacenCargado.getPersonaje(1), rapidosCargada.getCompetidores().get(0));
+			assertEquals(0, ligas.get(2).getCantidadCompetidores());
+
+			// Los acumulados restaurados se siguen actualizando al modificar las ligas
+			justiciaCargada.agregarCompetidorALiga(almacenCargado.getPersonaje(2));
+			assertEquals(3, justiciaCargada.getCantidadCompetidores());
+			assertEquals((85 + 90 + 100) / 3, justiciaCargada.getPromedioCaracteristica(Caracteristica.DESTREZA));
+		} finally {
+			Files.delete(archivo);
+		}
+	}
+
+	@Test
+	void testArchivoInvalido() throws IOException {
+		Path archivo = Files.createTempFile("juego", ".snapshot");
+		try {
+			Files.write(archivo, "Heroe, Clark Kent, Superman, 95, 100, 100, 85".getBytes(StandardCharsets.UTF_8));
+			IOException e = assertThrows(IOException.class, () -> SnapshotJuego.cargar(archivo.toString()));
+			assertTrue(e.getMessage().contains("no es un snapshot"));
+
+			// Un snapshot cortado a la mitad se informa como dañado
+			SnapshotJuego.guardar(archivo.toString(), new AlmacenPersonajes(), Arrays.<Liga>asList());
+			byte[] completo = Files.readAllBytes(archivo);
+			Files.write(archivo, Arrays.copyOf(completo, completo.length - 2));
+			e = assertThrows(IOException.class, () -> SnapshotJuego.cargar(archivo.toString()));
+			assertTrue(e.getMessage().contains("dañado"));
+		} finally {
+			Files.delete(archivo);
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package com.heroesyvillanos.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import com.heroesyvillanos.*;
+
+class TorneoTest {
+	
+	@Test
+	void testIgualACombatirUnoPorUno() throws Exception {
+		// Suficientes combates para que el torneo se divida en varias tareas
+		List<Competidor> competidores = Planteles.competidores(new Random(9), 1200, 4);
+		Planteles.agregarSinClaves(competidores);
+		
+		Torneo torneo = Torneo.jugar(competidores, Caracteristica.RESISTENCIA, new ForkJoinPool(4));
+		
+		List<Torneo.Posicion> posiciones = torneo.getPosiciones();
+		assertEquals(competidores.size(), posiciones.size());
+		Map<Competidor, Torneo.Posicion> porCompetidor = new IdentityHashMap<Competidor, Torneo.Posicion>();
+		for (Torneo.Posicion p : posiciones) {
+			porCompetidor.put(p.getCompetidor(), p);
+		}
+		for (Competidor c : competidores) {
+			int victorias = 0, empates = 0, derrotas = 0;
+			for (Competidor rival : competidores) {
+				int resultado;
+				try {
+					resultado = c.esGanador(rival, Caracteristica.RESISTENCIA);
+				} catch (Exception e) {
+					// Mismo tipo: no combaten
+					continue;
+				}
+				if (resultado > 0) {
+					victorias++;
+				} else if (resultado < 0) {
+					derrotas++;
+				} else {
+					empates++;
+				}
+			}
+			Torneo.Posicion p = porCompetidor.get(c);
+			assertEquals(victorias, p.getVictorias());
+			assertEquals(empates, p.getEmpates());
+			assertEquals(derrotas, p.getDerrotas());
+		}
+		
+		for (int i = 1; i < posiciones.size(); i++) {
+			assertTrue(posiciones.get(i - 1).getPuntos() >= posiciones.get(i).getPuntos());
+		}
+	}
+	
+	@Test
+	void testPocosHeroesContraMuchosVillanos() throws Exception {
+		// Con pocas filas la tabla se divide por los villanos
+		Random random = new Random(4);
+		List<Competidor> heroes = Planteles.competidores(random, 3, 4, TipoCompetidor.HEROE);
+		List<Competidor> villanos = Planteles.competidores(random, 70_000, 4, TipoCompetidor.VILLANO);
+		List<Competidor> competidores = new ArrayList<Competidor>(heroes);
+		competidores.addAll(villanos);
+		
+		Torneo torneo = Torneo.jugar(competidores, Caracteristica.DESTREZA, new ForkJoinPool(4));
+		
+		Map<Competidor, Torneo.Posicion> porCompetidor = new IdentityHashMap<Competidor, Torneo.Posicion>();
+		for (Torneo.Posicion p : torneo.getPosiciones()) {
+			porCompetidor.put(p.getCompetidor(), p);
+		}
+		int derrotasHeroes = 0;
+		for (Competidor heroe : heroes) {
+			int victorias = 0;
+			for (Competidor rival : villanos) {
+				if (heroe.esGanador(rival, Caracteristica.DESTREZA) > 0) {
+					victorias++;
+				}
+			}
+			Torneo.Posicion p = porCompetidor.get(heroe);
+			assertEquals(victorias, p.getVictorias());
+			assertEquals(villanos.size(), p.getVictorias() + p.getEmpates() + p.getDerrotas());
+			derrotasHeroes += p.getDerrotas();
+		}
+		int victoriasVillanos = 0;
+		for (Competidor villano : villanos) {
+			Torneo.Posicion p = porCompetidor.get(villano);
+			assertEquals(heroes.size(), p.getVictorias() + p.getEmpates() + p.getDerrotas());
+			victoriasVillanos += p.getVictorias();
+		}
+		assertEquals(derrotasHeroes, victoriasVillanos);
+	}
+	
+	@Test
+	void testDesempatePorPromedios() {
+		Personaje fuerte = new Personaje("A", "Fuerte", new int[] {10, 50, 10, 10}, TipoCompetidor.HEROE);
+		Personaje rapido = new Personaje("B", "Rápido", new int[] {50, 10, 10, 10}, TipoCompetidor.HEROE);
+		Personaje debil = new Personaje("C", "Débil", new int[] {1, 1, 1, 1}, TipoCompetidor.VILLANO);
+		
+		List<Torneo.Posicion> posiciones = Torneo.jugar(List.<Competidor>of(fuerte, rapido, debil), Caracteristica.FUERZA).getPosiciones();
+		
+		// Ambos héroes ganan su único combate; desempata la velocidad, primera en el orden por defecto
+		assertSame(rapido, posiciones.get(0).getCompetidor());
+		assertSame(fuerte, posiciones.get(1).getCompetidor());
+		assertSame(debil, posiciones.get(2).getCompetidor());
+		assertEquals(Torneo.PUNTOS_VICTORIA, posiciones.get(0).getPuntos());
+		assertEquals(0, posiciones.get(2).getPuntos());
+	}
+}
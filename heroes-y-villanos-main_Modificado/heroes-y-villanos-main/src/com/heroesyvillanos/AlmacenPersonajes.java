@@ -0,0 +1,257 @@
+package com.heroesyvillanos;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Clase AlmacenPersonajes que guarda a todos los personajes del juego en columnas.
+ * Cada característica tiene su propio array de int, el tipo se guarda en un BitSet y los nombres
+ * en arrays de String. Cada personaje se identifica con un id entero denso (su fila), y el objeto
+ * Personaje que se entrega a los demás es sólo un acceso a esa fila.
+ */
+public class AlmacenPersonajes {
+	private static final int CAPACIDAD_INICIAL = 16;
+
+	// columnasCaracteristicas[c.ordinal()][id]
+	private int[][] columnasCaracteristicas;
+	private BitSet esHeroe = new BitSet();
+	private String[] nombres;
+	private String[] nombresFantasia;
+	private Personaje[] personajes;
+	private int cantidad = 0;
+
+	/**
+	 * Constructor que inicializa un almacén vacío.
+	 */
+	public AlmacenPersonajes() {
+		columnasCaracteristicas = new int[Caracteristica.values().length][CAPACIDAD_INICIAL];
+		nombres = new String[CAPACIDAD_INICIAL];
+		nombresFantasia = new String[CAPACIDAD_INICIAL];
+		personajes = new Personaje[CAPACIDAD_INICIAL];
+	}
+
+	/**
+	 * Crea un almacén a partir de columnas ya armadas, por ejemplo al leer un snapshot.
+	 * Las columnas se usan directamente, sin copiarlas, y deben tener al menos cantidad lugares. Se crea un personaje por fila.
+	 *
+	 * @param columnasCaracteristicas Valores indexados por [Caracteristica.ordinal()][id].
+	 * @param esHeroe                 Tipo de cada fila (bit encendido para los héroes).
+	 * @param nombres                 Nombre real de cada fila.
+	 * @param nombresFantasia         Nombre de fantasía de cada fila.
+	 * @param cantidad                Cantidad de filas ocupadas.
+	 */
+	AlmacenPersonajes(int[][] columnasCaracteristicas, BitSet esHeroe, String[] nombres, String[] nombresFantasia, int cantidad) {
+		this.columnasCaracteristicas = columnasCaracteristicas;
+		this.esHeroe = esHeroe;
+		this.nombres = nombres;
+		this.nombresFantasia = nombresFantasia;
+		this.personajes = new Personaje[cantidad];
+		this.cantidad = cantidad;
+		for (int id = 0; id < cantidad; id++) {
+			personajes[id] = new Personaje(this, id, esHeroe.get(id) ? TipoCompetidor.HEROE : TipoCompetidor.VILLANO);
+		}
+	}
+
+	/**
+	 * Agrega un personaje al almacén. Sus datos se copian a una nueva fila y el personaje pasa a leerlos desde ahí.
+	 *
+	 * @param p Personaje a agregar. No puede pertenecer ya a un almacén.
+	 * @return El id asignado al personaje.
+	 * @throws IllegalArgumentException Si el personaje ya pertenece a este u otro almacén.
+	 */
+	public int agregar(Personaje p) throws IllegalArgumentException {
+		if (p.getIdAlmacen() >= 0) {
+			// El almacén anterior seguiría devolviéndolo, pero ya no leería sus datos desde sus columnas
+			throw new IllegalArgumentException("El personaje " + p.getNombreFantasia() + " ya pertenece a un almacén");
+		}
+		int id = reservarFila();
+		for (Caracteristica c : Caracteristica.values()) {
+			columnasCaracteristicas[c.ordinal()][id] = p.getPromedioCaracteristica(c);
+		}
+		esHeroe.set(id, p.getTipoCompetidor() == TipoCompetidor.HEROE);
+		nombres[id] = p.getNombre();
+		nombresFantasia[id] = p.getNombreFantasia();
+		personajes[id] = p;
+		p.adjuntarAlmacen(this, id);
+		return id;
+	}
+
+	/**
+	 * Agrega una fila con los datos ya separados, sin armar antes un Personaje con sus propios campos.
+	 * Lo usan los lectores de archivo, que ya validaron los datos.
+	 *
+	 * @param tipo           Tipo del personaje.
+	 * @param nombre         Nombre real.
+	 * @param nombreFantasia Nombre de fantasía.
+	 * @param valores        Valores de las características indexados por Caracteristica.ordinal(). Se copian.
+	 * @return El id asignado al personaje.
+	 */
+	int agregarFila(TipoCompetidor tipo, String nombre, String nombreFantasia, int[] valores) {
+		int id = reservarFila();
+		for (int i = 0; i < columnasCaracteristicas.length; i++) {
+			columnasCaracteristicas[i][id] = valores[i];
+		}
+		esHeroe.set(id, tipo == TipoCompetidor.HEROE);
+		nombres[id] = nombre;
+		nombresFantasia[id] = nombreFantasia;
+		personajes[id] = new Personaje(this, id, tipo);
+		return id;
+	}
+
+	/**
+	 * Mueve al final de este almacén todas las filas de otro, conservando su orden.
+	 * Los personajes del otro almacén pasan a leer sus datos desde este. Lo usa la carga en paralelo
+	 * para unir los bloques leídos en el orden del archivo.
+	 *
+	 * @param otro Almacén cuyas filas se agregan. No debe usarse después.
+	 */
+	void agregarTodos(AlmacenPersonajes otro) {
+		int base = cantidad;
+		asegurarCapacidad(cantidad + otro.cantidad);
+		for (int i = 0; i < columnasCaracteristicas.length; i++) {
+			System.arraycopy(otro.columnasCaracteristicas[i], 0, columnasCaracteristicas[i], base, otro.cantidad);
+		}
+		System.arraycopy(otro.nombres, 0, nombres, base, otro.cantidad);
+		System.arraycopy(otro.nombresFantasia, 0, nombresFantasia, base, otro.cantidad);
+		for (int id = 0; id < otro.cantidad; id++) {
+			esHeroe.set(base + id, otro.esHeroe.get(id));
+			personajes[base + id] = otro.personajes[id];
+			otro.personajes[id].adjuntarAlmacen(this, base + id);
+		}
+		cantidad += otro.cantidad;
+	}
+
+	/**
+	 * Obtiene el personaje de una fila.
+	 *
+	 * @param id Id del personaje.
+	 * @return El personaje guardado en esa fila.
+	 */
+	public Personaje getPersonaje(int id) {
+		validarId(id);
+		return personajes[id];
+	}
+
+	/**
+	 * @return La cantidad de personajes guardados.
+	 */
+	public int getCantidad() {
+		return cantidad;
+	}
+
+	/**
+	 * Devuelve una vista de sólo lectura de los personajes en orden de id. No copia los datos.
+	 *
+	 * @return Lista de personajes del almacén.
+	 */
+	public List<Personaje> getPersonajes() {
+		return new AbstractList<Personaje>() {
+			@Override
+			public Personaje get(int index) {
+				return getPersonaje(index);
+			}
+
+			@Override
+			public int size() {
+				return cantidad;
+			}
+		};
+	}
+
+	/**
+	 * Ordena los personajes según una lista de características, leyendo los valores desde las columnas.
+	 * El orden es estable y coincide con el de ordenar con Ordenamiento; los valores de cada personaje se
+	 * empaquetan en una clave y se ordenan sin comparador (ver Ordenamiento.ordenarPosiciones).
+	 *
+	 * @param criterios Lista de características por las que se ordena.
+	 * @return Lista nueva con los personajes ordenados en forma ascendente.
+	 */
+	public List<Personaje> ordenarPorCriterios(List<Caracteristica> criterios) {
+		if (criterios.isEmpty()) {
+			// Sin criterios todos empatan, y el orden estable es el de los ids
+			return new ArrayList<Personaje>(getPersonajes());
+		}
+		return ordenar(new Ordenamiento().setearOrdenCaracteristicas(criterios));
+	}
+
+	/**
+	 * Ordena los personajes con un Ordenamiento dado, leyendo los valores desde las columnas.
+	 * Respeta el umbral paralelo del Ordenamiento; el resultado es el mismo con cualquier umbral.
+	 *
+	 * @param ordenamiento Criterios y umbral paralelo del orden.
+	 * @return Lista nueva con los personajes ordenados en forma ascendente.
+	 */
+	public List<Personaje> ordenar(Ordenamiento ordenamiento) {
+		int[] ids = ordenamiento.ordenarPosiciones(cantidad, c -> columnasCaracteristicas[c.ordinal()]);
+
+		List<Personaje> ordenados = new ArrayList<Personaje>(cantidad);
+		for (int id : ids) {
+			ordenados.add(personajes[id]);
+		}
+		return ordenados;
+	}
+
+	// Acceso a las columnas completas, usado al escribir un snapshot. Pueden tener más lugares que filas ocupadas
+	int[] getColumna(Caracteristica c) {
+		return columnasCaracteristicas[c.ordinal()];
+	}
+
+	BitSet getEsHeroe() {
+		return esHeroe;
+	}
+
+	// Acceso a las filas, usado por Personaje
+	int getValor(int id, Caracteristica c) {
+		return columnasCaracteristicas[c.ordinal()][id];
+	}
+
+	void setValor(int id, Caracteristica c, int valor) {
+		columnasCaracteristicas[c.ordinal()][id] = valor;
+	}
+
+	String getNombre(int id) {
+		return nombres[id];
+	}
+
+	void setNombre(int id, String nombre) {
+		nombres[id] = nombre;
+	}
+
+	String getNombreFantasia(int id) {
+		return nombresFantasia[id];
+	}
+
+	void setNombreFantasia(int id, String nombreFantasia) {
+		nombresFantasia[id] = nombreFantasia;
+	}
+
+	void setTipo(int id, TipoCompetidor tipo) {
+		esHeroe.set(id, tipo == TipoCompetidor.HEROE);
+	}
+
+	private int reservarFila() {
+		asegurarCapacidad(cantidad + 1);
+		return cantidad++;
+	}
+
+	private void asegurarCapacidad(int capacidad) {
+		if (capacidad > personajes.length) {
+			int nuevaCapacidad = Math.max(capacidad, personajes.length * 2);
+			for (int i = 0; i < columnasCaracteristicas.length; i++) {
+				columnasCaracteristicas[i] = Arrays.copyOf(columnasCaracteristicas[i], nuevaCapacidad);
+			}
+			nombres = Arrays.copyOf(nombres, nuevaCapacidad);
+			nombresFantasia = Arrays.copyOf(nombresFantasia, nuevaCapacidad);
+			personajes = Arrays.copyOf(personajes, nuevaCapacidad);
+		}
+	}
+
+	private void validarId(int id) {
+		if (id < 0 || id >= cantidad) {
+			throw new IndexOutOfBoundsException("Id de personaje inexistente: " + id);
+		}
+	}
+}
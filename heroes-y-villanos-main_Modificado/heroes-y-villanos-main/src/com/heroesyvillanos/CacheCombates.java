@@ -0,0 +1,137 @@
+package com.heroesyvillanos;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Clase CacheCombates que recuerda resultados de combates (con las reglas de Competidor.esGanador) para no recalcularlos.
+ *
+ * Es de tamaño fijo y de correspondencia directa: cada combate (par de competidores y característica) va a una sola
+ * posición, y un combate nuevo reemplaza al que estuviera allí. Cada entrada guarda la versión de ambos competidores
+ * al momento del combate; como la versión aumenta cada vez que cambian los promedios, una entrada vieja simplemente
+ * no coincide y se recalcula, sin tener que recorrer el cache para invalidarla.
+ *
+ * Las entradas son inmutables y se reemplazan con una sola escritura de referencia, por lo que el cache puede usarse
+ * desde varios hilos: en el peor caso dos hilos calculan el mismo combate. Las estadísticas usan LongAdder.
+ */
+public class CacheCombates {
+	private static final int CAPACIDAD_POR_DEFECTO = 1 << 16;
+
+	private final Entrada[] entradas;
+	private final int mascara;
+	private final LongAdder aciertos = new LongAdder();
+	private final LongAdder fallos = new LongAdder();
+
+	/**
+	 * Constructor que crea un cache con la capacidad por defecto.
+	 */
+	public CacheCombates() {
+		this(CAPACIDAD_POR_DEFECTO);
+	}
+
+	/**
+	 * @param capacidad Cantidad máxima de combates recordados. Se redondea a la potencia de 2 siguiente.
+	 * @throws IllegalArgumentException Si la capacidad no es positiva.
+	 */
+	public CacheCombates(int capacidad) throws IllegalArgumentException {
+		if (capacidad <= 0 || capacidad > 1 << 30) {
+			throw new IllegalArgumentException("La capacidad del cache debe estar entre 1 y 2^30");
+		}
+		int tamanio = Integer.highestOneBit(capacidad);
+		if (tamanio < capacidad) {
+			tamanio <<= 1;
+		}
+		this.entradas = new Entrada[tamanio];
+		this.mascara = tamanio - 1;
+	}
+
+	/**
+	 * Obtiene el resultado de un combate, del cache si está vigente o calculándolo con esGanador.
+	 *
+	 * @param c1 Primer competidor.
+	 * @param c2 Segundo competidor, del tipo opuesto.
+	 * @param c  Característica con la que se inicia el combate.
+	 * @return El signo de c1.esGanador(c2, c): 1 si gana c1, -1 si gana c2, 0 si empatan.
+	 * @throws Exception Si los competidores son del mismo tipo.
+	 */
+	public int combatir(Competidor c1, Competidor c2, Caracteristica c) throws Exception {
+		// El par se guarda siempre en el mismo orden, así (a, b) y (b, a) comparten la entrada
+		boolean invertido = c1.getIdCompetidor() > c2.getIdCompetidor();
+		Competidor a = invertido ? c2 : c1;
+		Competidor b = invertido ? c1 : c2;
+		int versionA = a.getVersion();
+		int versionB = b.getVersion();
+
+		int posicion = posicion(a.getIdCompetidor(), b.getIdCompetidor(), c);
+		Entrada e = entradas[posicion];
+		int resultado;
+		if (e != null && e.idA == a.getIdCompetidor() && e.idB == b.getIdCompetidor() && e.caracteristica == c
+				&& e.versionA == versionA && e.versionB == versionB) {
+			aciertos.increment();
+			resultado = e.resultado;
+		} else {
+			fallos.increment();
+			resultado = Integer.signum(a.esGanador(b, c));
+			entradas[posicion] = new Entrada(a.getIdCompetidor(), b.getIdCompetidor(), c, versionA, versionB, resultado);
+		}
+		return invertido ? -resultado : resultado;
+	}
+
+	private int posicion(long idA, long idB, Caracteristica c) {
+		long h = (idA * 0x9E3779B97F4A7C15L) ^ (idB * 0xC2B2AE3D27D4EB4FL) ^ c.ordinal();
+		h ^= h >>> 31;
+		return (int) (h ^ (h >>> 32)) & mascara;
+	}
+
+	/**
+	 * Descarta todas las entradas. Las estadísticas no se reinician.
+	 */
+	public void limpiar() {
+		for (int i = 0; i < entradas.length; i++) {
+			entradas[i] = null;
+		}
+	}
+
+	public long getAciertos() {
+		return aciertos.sum();
+	}
+
+	public long getFallos() {
+		return fallos.sum();
+	}
+
+	/**
+	 * @return La proporción de consultas respondidas por el cache, o 0 si todavía no hubo consultas.
+	 */
+	public double getTasaAciertos() {
+		long a = getAciertos();
+		long total = a + getFallos();
+		return total == 0 ? 0 : (double) a / total;
+	}
+
+	public int getCapacidad() {
+		return entradas.length;
+	}
+
+	@Override
+	public String toString() {
+		return "aciertos " + getAciertos() + ", fallos " + getFallos() + ", capacidad " + getCapacidad();
+	}
+
+	private static class Entrada {
+		private final long idA;
+		private final long idB;
+		private final Caracteristica caracteristica;
+		private final int versionA;
+		private final int versionB;
+		private final int resultado;
+
+		Entrada(long idA, long idB, Caracteristica caracteristica, int versionA, int versionB, int resultado) {
+			this.idA = idA;
+			this.idB = idB;
+			this.caracteristica = caracteristica;
+			this.versionA = versionA;
+			this.versionB = versionB;
+			this.resultado = resultado;
+		}
+	}
+}
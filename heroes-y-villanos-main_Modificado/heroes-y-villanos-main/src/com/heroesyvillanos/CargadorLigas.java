@@ -0,0 +1,261 @@
+package com.heroesyvillanos;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Clase CargadorLigas que arma las ligas de un archivo ligas.in en dos pasadas, sin depender del orden de las líneas.
+ *
+ * En la primera pasada se leen todas las definiciones (nombre de la liga y nombres de sus miembros) y se indexan por nombre.
+ * En la segunda se construye cada liga después de sus sub-ligas, con un recorrido en profundidad que sigue el orden del
+ * archivo: cada definición y cada miembro se visitan una sola vez, por lo que el costo es lineal en el tamaño del archivo.
+ * Cada liga se crea con todos sus miembros a la vez, así sus acumulados se calculan una sola vez.
+ *
+ * Los problemas (miembros desconocidos, de otro tipo o que ya pertenecen a otra liga, ligas repetidas y ciclos)
+ * no cortan la carga: el miembro o la liga afectada se omite y el problema queda registrado en getProblemas().
+ */
+public class CargadorLigas {
+	// Estados del recorrido en profundidad
+	private static final byte SIN_VISITAR = 0;
+	private static final byte EN_CURSO = 1;
+	private static final byte TERMINADA = 2;
+
+	private final RegistroNombres registroPersonajes;
+	private final List<String> problemas = new ArrayList<String>();
+
+	/**
+	 * @param registroPersonajes Registro donde se buscan los personajes por nombre de fantasía.
+	 */
+	public CargadorLigas(RegistroNombres registroPersonajes) {
+		this.registroPersonajes = registroPersonajes;
+	}
+
+	/**
+	 * @return Los problemas encontrados en la última carga, uno por línea, en el orden en que se detectaron.
+	 */
+	public List<String> getProblemas() {
+		return Collections.unmodifiableList(problemas);
+	}
+
+	/**
+	 * Carga las ligas de un archivo.
+	 *
+	 * @param path Ruta del archivo de ligas.
+	 * @return Las ligas creadas, en el orden en que aparecen en el archivo.
+	 * @throws IOException Si ocurre un error al leer el archivo.
+	 */
+	public List<Liga> cargar(String path) throws IOException {
+		try (Reader reader = new FileReader(path)) {
+			return cargar(reader);
+		}
+	}
+
+	/**
+	 * Carga las ligas de un texto con una liga por línea: el nombre de la liga seguido de los nombres de sus miembros,
+	 * separados por comas. Los miembros pueden ser personajes del registro o ligas definidas en cualquier línea.
+	 *
+	 * @param reader Texto a leer. No se cierra.
+	 * @return Las ligas creadas, en el orden en que aparecen en el texto.
+	 * @throws IOException Si ocurre un error al leer.
+	 */
+	public List<Liga> cargar(Reader reader) throws IOException {
+		problemas.clear();
+		List<Definicion> definiciones = leerDefiniciones(new BufferedReader(reader));
+
+		Map<String, Integer> indicePorNombre = new HashMap<String, Integer>();
+		for (int i = 0; i < definiciones.size(); i++) {
+			indicePorNombre.put(RegistroNombres.normalizar(definiciones.get(i).nombre), i);
+		}
+		// Para cada miembro, el índice de la definición de liga con ese nombre, o -1 si no es una liga del archivo.
+		// Como en construir, un personaje con ese nombre tiene prioridad sobre la liga
+		for (Definicion d : definiciones) {
+			d.subLigas = new int[d.miembros.length];
+			for (int m = 0; m < d.miembros.length; m++) {
+				Integer indice = indicePorNombre.get(RegistroNombres.normalizar(d.miembros[m]));
+				d.subLigas[m] = indice != null && registroPersonajes.buscarPersonaje(d.miembros[m]) == null ? indice : -1;
+			}
+		}
+
+		Liga[] creadas = construirEnOrden(definiciones);
+
+		List<Liga> ligas = new ArrayList<Liga>();
+		for (Liga liga : creadas) {
+			if (liga != null) {
+				ligas.add(liga);
+			}
+		}
+		return ligas;
+	}
+
+	/**
+	 * Primera pasada: lee cada línea como una definición. Las líneas vacías se ignoran, y si una liga
+	 * se define más de una vez se conserva la primera.
+	 */
+	private List<Definicion> leerDefiniciones(BufferedReader br) throws IOException {
+		List<Definicion> definiciones = new ArrayList<Definicion>();
+		Map<String, Integer> lineaPorNombre = new HashMap<String, Integer>();
+		String line;
+		int numeroLinea = 0;
+		while ((line = br.readLine()) != null) {
+			numeroLinea++;
+			if (line.isBlank()) {
+				continue;
+			}
+			String[] campos = line.split(",");
+			String nombre = campos[0].trim();
+			if (nombre.isEmpty()) {
+				problemas.add("Línea " + numeroLinea + ": falta el nombre de la liga");
+				continue;
+			}
+			Integer lineaAnterior = lineaPorNombre.putIfAbsent(RegistroNombres.normalizar(nombre), numeroLinea);
+			if (lineaAnterior != null) {
+				problemas.add("Línea " + numeroLinea + ": la liga " + nombre + " ya fue definida en la línea " + lineaAnterior);
+				continue;
+			}
+			String[] miembros = new String[campos.length - 1];
+			for (int i = 1; i < campos.length; i++) {
+				miembros[i - 1] = campos[i].trim();
+			}
+			definiciones.add(new Definicion(nombre, miembros, numeroLinea));
+		}
+		return definiciones;
+	}
+
+	/**
+	 * Segunda pasada: recorrido en profundidad con una pila explícita, que construye cada liga al terminar
+	 * de visitar sus sub-ligas. Un miembro que apunta a una liga todavía en curso cierra un ciclo: se informa y se omite.
+	 */
+	private Liga[] construirEnOrden(List<Definicion> definiciones) {
+		int n = definiciones.size();
+		Liga[] creadas = new Liga[n];
+		byte[] estado = new byte[n];
+		int[] pilaDefiniciones = new int[n];
+		int[] pilaMiembro = new int[n];
+
+		for (int raiz = 0; raiz < n; raiz++) {
+			if (estado[raiz] != SIN_VISITAR) {
+				continue;
+			}
+			int tope = 0;
+			pilaDefiniciones[0] = raiz;
+			pilaMiembro[0] = 0;
+			estado[raiz] = EN_CURSO;
+
+			while (tope >= 0) {
+				Definicion d = definiciones.get(pilaDefiniciones[tope]);
+				int m = pilaMiembro[tope];
+				if (m < d.miembros.length) {
+					pilaMiembro[tope]++;
+					int sub = d.subLigas[m];
+					if (sub < 0) {
+						continue;
+					}
+					if (estado[sub] == SIN_VISITAR) {
+						estado[sub] = EN_CURSO;
+						tope++;
+						pilaDefiniciones[tope] = sub;
+						pilaMiembro[tope] = 0;
+					} else if (estado[sub] == EN_CURSO) {
+						informarCiclo(definiciones, pilaDefiniciones, tope, sub);
+						d.subLigas[m] = -1;
+						d.enCiclo[m] = true;
+					}
+				} else {
+					creadas[pilaDefiniciones[tope]] = construir(d, creadas);
+					estado[pilaDefiniciones[tope]] = TERMINADA;
+					tope--;
+				}
+			}
+		}
+		return creadas;
+	}
+
+	private void informarCiclo(List<Definicion> definiciones, int[] pila, int tope, int inicioCiclo) {
+		StringBuilder ciclo = new StringBuilder();
+		int desde = tope;
+		while (pila[desde] != inicioCiclo) {
+			desde--;
+		}
+		for (int i = desde; i <= tope; i++) {
+			ciclo.append(definiciones.get(pila[i]).nombre).append(" -> ");
+		}
+		ciclo.append(definiciones.get(inicioCiclo).nombre);
+		Definicion d = definiciones.get(pila[tope]);
+		problemas.add("Línea " + d.linea + ": ciclo entre ligas (" + ciclo + "), no se agrega "
+				+ definiciones.get(inicioCiclo).nombre + " a " + d.nombre);
+	}
+
+	/**
+	 * Crea una liga con los miembros que pueden sumarse a ella. El tipo de la liga es el del primer miembro válido.
+	 *
+	 * @return La liga creada, o null si ninguno de sus miembros pudo sumarse.
+	 */
+	private Liga construir(Definicion d, Liga[] creadas) {
+		List<Competidor> competidores = new ArrayList<Competidor>();
+		Set<Competidor> vistos = Collections.newSetFromMap(new IdentityHashMap<Competidor, Boolean>());
+		TipoCompetidor tipo = null;
+
+		for (int m = 0; m < d.miembros.length; m++) {
+			String nombreMiembro = d.miembros[m];
+			if (nombreMiembro.isEmpty() || d.enCiclo[m]) {
+				continue;
+			}
+			Competidor c = registroPersonajes.buscarPersonaje(nombreMiembro);
+			if (c == null && d.subLigas[m] >= 0) {
+				c = creadas[d.subLigas[m]];
+				if (c == null) {
+					problemas.add("Línea " + d.linea + ": la liga " + nombreMiembro + " no pudo crearse, no se agrega a " + d.nombre);
+					continue;
+				}
+			}
+			if (c == null) {
+				problemas.add("Línea " + d.linea + ": no existe el personaje o liga " + nombreMiembro);
+			} else if (!vistos.add(c)) {
+				problemas.add("Línea " + d.linea + ": " + nombreMiembro + " está repetido en la liga " + d.nombre);
+			} else if (!c.puedeEntrarEnLiga()) {
+				problemas.add("Línea " + d.linea + ": " + nombreMiembro + " ya pertenece a otra liga");
+			} else if (tipo != null && c.getTipoCompetidor() != tipo) {
+				problemas.add("Línea " + d.linea + ": " + nombreMiembro + " es de otro tipo que la liga " + d.nombre);
+			} else {
+				tipo = c.getTipoCompetidor();
+				competidores.add(c);
+			}
+		}
+
+		if (competidores.isEmpty()) {
+			problemas.add("Línea " + d.linea + ": la liga " + d.nombre + " no tiene miembros válidos y no se crea");
+			return null;
+		}
+		try {
+			return new Liga(d.nombre, competidores, tipo);
+		} catch (Exception e) {
+			// Los miembros ya fueron validados, así que sólo puede fallar por el nombre
+			problemas.add("Línea " + d.linea + ": " + e.getMessage());
+			return null;
+		}
+	}
+
+	private static class Definicion {
+		private final String nombre;
+		private final String[] miembros;
+		private final int linea;
+		private final boolean[] enCiclo;
+		private int[] subLigas;
+
+		Definicion(String nombre, String[] miembros, int linea) {
+			this.nombre = nombre;
+			this.miembros = miembros;
+			this.linea = linea;
+			this.enCiclo = new boolean[miembros.length];
+		}
+	}
+}
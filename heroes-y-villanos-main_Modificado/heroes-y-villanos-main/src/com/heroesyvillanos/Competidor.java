@@ -1,16 +1,94 @@
 package com.heroesyvillanos;
 
+import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public abstract class Competidor {
 	protected TipoCompetidor tipoCompetidor;
 	protected boolean estaDentroDeLiga;
+	protected Liga ligaPadre; // Liga que contiene directamente a este competidor, si la hay
+	
+	// Copia de Caracteristica.values(), para no clonar el array en cada combate
+	static final Caracteristica[] CARACTERISTICAS = Caracteristica.values();
+	// Cada clave de rotación empaqueta los promedios en campos de BITS_POR_VALOR bits, empezando por una característica
+	private static final int BITS_POR_VALOR = Long.SIZE / CARACTERISTICAS.length;
+	private static final long MAX_VALOR_EN_CLAVE = (1L << BITS_POR_VALOR) - 1;
+	
+	// clavesRotacion[c.ordinal()] compara igual que esGanador empezando por c. Sólo sirven si clavesValidas
+	private final long[] clavesRotacion = new long[CARACTERISTICAS.length];
+	private boolean clavesValidas = true;
+	
+	// Identidad estable del competidor, y versión que aumenta cada vez que cambian sus promedios (ver CacheCombates)
+	private static final AtomicLong SIGUIENTE_ID = new AtomicLong();
+	private final long idCompetidor = SIGUIENTE_ID.getAndIncrement();
+	private volatile int version = 0;
 	abstract protected int getPromedioCaracteristica(Caracteristica c);
 	abstract protected int getSumaCaracteristica(Caracteristica c);
 	abstract protected int getCantidadCompetidores();
 	abstract public List<Competidor> getCompetidores();
+	abstract public Iterator<Competidor> iteradorCompetidores();
 	abstract protected String getNombreParaArchivo();
 	
+	/**
+	 * Escribe la línea de archivo del competidor (la misma que toFileLine, sin salto de línea) directamente
+	 * en el destino, sin armar un String intermedio.
+	 *
+	 * @param destino Destino de la escritura, por ejemplo un BufferedWriter o un StringBuilder.
+	 * @throws IOException Si el destino falla al escribir.
+	 */
+	abstract public void writeTo(Appendable destino) throws IOException;
+	
+	/**
+	 * Escribe un entero en decimal, dígito por dígito, sin crear un String.
+	 */
+	protected static void escribirEntero(Appendable destino, int valor) throws IOException {
+		long v = valor;
+		if (v < 0) {
+			destino.append('-');
+			v = -v;
+		}
+		long divisor = 1;
+		while (divisor * 10 <= v) {
+			divisor *= 10;
+		}
+		for (; divisor > 0; divisor /= 10) {
+			destino.append((char) ('0' + (v / divisor) % 10));
+		}
+	}
+	
+	/**
+	 * Recorre en profundidad los mismos competidores que devuelve getCompetidores(), en el mismo orden,
+	 * sin armar listas intermedias. El recorrido se corta cuando el visitante devuelve false.
+	 *
+	 * @param visitante Función que recibe cada competidor y devuelve true para seguir recorriendo.
+	 * @return true si se recorrieron todos los competidores, false si el visitante cortó el recorrido.
+	 */
+	public boolean recorrerCompetidores(Predicate<? super Competidor> visitante) {
+		Iterator<Competidor> it = iteradorCompetidores();
+		while(it.hasNext()) {
+			if(!visitante.test(it.next())) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * @return Un Stream secuencial sobre los mismos competidores que recorre iteradorCompetidores().
+	 */
+	public Stream<Competidor> streamCompetidores() {
+		return StreamSupport.stream(
+				Spliterators.spliteratorUnknownSize(iteradorCompetidores(), Spliterator.ORDERED | Spliterator.NONNULL),
+				false);
+	}
+	
 	protected boolean esNombreValido(String name) {
 		if(name.length() == 0) return false;
 		
@@ -25,6 +103,23 @@ public abstract class Competidor {
 		return !estaDentroDeLiga;
 	}
 	
+	protected Liga getLigaPadre() {
+		return ligaPadre;
+	}
+	
+	protected void setLigaPadre(Liga liga) {
+		ligaPadre = liga;
+	}
+	
+	// Sumas y cantidades sin truncar a int, usadas para mantener los acumulados de las ligas
+	protected long getSumaCaracteristicaExacta(Caracteristica c) {
+		return getSumaCaracteristica(c);
+	}
+	
+	protected long getCantidadCompetidoresExacta() {
+		return getCantidadCompetidores();
+	}
+	
 	protected TipoCompetidor getTipoCompetidor() {
 		return tipoCompetidor;
 	}
@@ -33,20 +128,86 @@ public abstract class Competidor {
 		return comp_1.getPromedioCaracteristica(c) - comp_2.getPromedioCaracteristica(c);
 	}
 	
-	public int esGanador(Competidor competidor, Caracteristica c) throws Exception, NullPointerException{
-		if(this.tipoCompetidor == competidor.tipoCompetidor) {
-			throw new Exception("No se pueden enfrentar competidores del mismo tipo");
+	/**
+	 * Recalcula las claves de rotación a partir de los promedios actuales. Cada subclase la llama cuando
+	 * cambian sus promedios. Si algún promedio no entra en un campo de la clave (negativo o muy grande),
+	 * las claves se marcan como no válidas y esGanador compara característica por característica.
+	 */
+	protected void actualizarClavesRotacion() {
+		int len = CARACTERISTICAS.length;
+		int[] valores = new int[len];
+		boolean validas = true;
+		for (int i = 0; i < len; i++) {
+			valores[i] = getPromedioCaracteristica(CARACTERISTICAS[i]);
+			if (valores[i] < 0 || valores[i] > MAX_VALOR_EN_CLAVE) {
+				validas = false;
+			}
+		}
+		if (validas) {
+			for (int r = 0; r < len; r++) {
+				// La característica inicial ocupa los bits más altos, y le siguen las demás en orden circular
+				long clave = 0;
+				for (int k = 0; k < len; k++) {
+					clave = (clave << BITS_POR_VALOR) | valores[(r + k) % len];
+				}
+				clavesRotacion[r] = clave;
+			}
+		}
+		clavesValidas = validas;
+		version++;
+	}
+	
+	/**
+	 * @return Un número único por competidor, que no cambia durante la ejecución.
+	 */
+	long getIdCompetidor() {
+		return idCompetidor;
+	}
+	
+	/**
+	 * @return La versión de los promedios: aumenta cada vez que se recalculan las claves de rotación.
+	 */
+	int getVersion() {
+		return version;
+	}
+	
+	/**
+	 * @return true si las claves de rotación representan a todos los promedios y pueden compararse directamente.
+	 */
+	boolean tieneClavesRotacion() {
+		return clavesValidas;
+	}
+	
+	/**
+	 * @param c Característica con la que se inicia la comparación.
+	 * @return La clave de rotación que empieza por c. Se compara como long sin signo, y sólo si tieneClavesRotacion().
+	 */
+	long getClaveRotacion(Caracteristica c) {
+		return clavesRotacion[c.ordinal()];
+	}
+	
+	/**
+	 * Compara con otro competidor empezando por una característica, sin validar los tipos.
+	 * Si ambos tienen claves válidas, es una única comparación de long.
+	 *
+	 * @param competidor Competidor contra el que se compara.
+	 * @param c          Característica con la que se inicia la comparación.
+	 * @return Un valor positivo si gana este competidor, negativo si gana el otro, 0 si empatan.
+	 */
+	int compararRotacion(Competidor competidor, Caracteristica c) {
+		if (clavesValidas && competidor.clavesValidas) {
+			int r = c.ordinal();
+			return Long.compareUnsigned(clavesRotacion[r], competidor.clavesRotacion[r]);
 		}
 		
 		int pos = c.ordinal();
-		int len = Caracteristica.values().length;
-		Caracteristica carac_values[] = Caracteristica.values();
+		int len = CARACTERISTICAS.length;
 		int result = 0;
 		int carac_vistas = 0;
 		
 		// Comparacion con todas las caracteristicas en forma de lista circular
 		while(result == 0 && carac_vistas < len) { 
-			result = compareToCompetidor(this, competidor, carac_values[pos]);
+			result = compareToCompetidor(this, competidor, CARACTERISTICAS[pos]);
 			carac_vistas++;
 			pos++;
 			if(pos >= len) pos = 0;
@@ -54,4 +215,12 @@ public abstract class Competidor {
 		
 		return result;
 	}
+	
+	public int esGanador(Competidor competidor, Caracteristica c) throws Exception, NullPointerException{
+		if(this.tipoCompetidor == competidor.tipoCompetidor) {
+			throw new Exception("No se pueden enfrentar competidores del mismo tipo");
+		}
+		
+		return compararRotacion(competidor, c);
+	}
 }
@@ -0,0 +1,348 @@
+package com.heroesyvillanos;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Clase DiarioCambios que registra, al final de un archivo, cada cambio hecho sobre el estado del juego
+ * desde el último snapshot: creación de personajes y ligas y competidores agregados a una liga.
+ * Guardar un cambio cuesta sólo lo que ocupa su registro, sin reescribir el resto del mundo.
+ *
+ * El diario tiene como base un SnapshotJuego y guarda su generación en la cabecera. Al compactar se escribe
+ * un snapshot con una generación nueva (ver siguienteGeneracion) y luego se vacía el diario; si el programa se
+ * corta entre ambos pasos, el diario queda con una generación anterior y se descarta al cargar.
+ *
+ * Formato (enteros en big-endian):
+ * <pre>
+ * cabecera: int MAGIA, int VERSION, long generación del snapshot base
+ * registro: int largo, int CRC32 de los datos, datos (byte tipo de cambio, y los campos de ese cambio)
+ * </pre>
+ * Cada registro se escribe con una sola escritura y se fuerza a disco, por lo que un corte pierde a lo sumo
+ * el registro que se estaba escribiendo. Un registro incompleto o dañado al final se descarta al cargar.
+ */
+public class DiarioCambios implements Closeable {
+	private static final int MAGIA = 0x48795644; // "HyVD"
+	private static final int VERSION = 1;
+	private static final int LARGO_CABECERA = 16;
+
+	private static final byte CAMBIO_CREAR_PERSONAJE = 1;
+	private static final byte CAMBIO_CREAR_LIGA = 2;
+	private static final byte CAMBIO_AGREGAR_PERSONAJE = 3;
+	private static final byte CAMBIO_AGREGAR_LIGA = 4;
+
+	private final Path path;
+	// Abierto sólo mientras el diario está activo, es decir, después de anclarlo a un snapshot
+	private FileChannel canal;
+	private int cantidadRegistros = 0;
+	// Falló la escritura de un registro: el estado del juego tiene cambios que el diario no describe
+	private boolean requiereSnapshot = false;
+
+	/**
+	 * Crea un diario inactivo sobre un archivo. No se registra nada hasta llamar a iniciar o reproducir.
+	 *
+	 * @param path Ruta del archivo del diario.
+	 */
+	public DiarioCambios(String path) {
+		this.path = Paths.get(path);
+	}
+
+	/**
+	 * @return true si el diario está anclado a un snapshot y registra los cambios.
+	 */
+	public boolean estaActivo() {
+		return canal != null;
+	}
+
+	/**
+	 * @return true si falló la escritura de un registro y el diario quedó inactivo. El estado del juego tiene
+	 *         cambios que no están en el diario, y hay que guardarlo en un snapshot nuevo.
+	 */
+	public boolean requiereSnapshot() {
+		return requiereSnapshot;
+	}
+
+	/**
+	 * @return La cantidad de registros del diario desde su último vaciado.
+	 */
+	public int getCantidadRegistros() {
+		return cantidadRegistros;
+	}
+
+	/**
+	 * Calcula la generación del próximo snapshot: mayor que la del snapshot actual y que las guardadas en las
+	 * cabeceras del snapshot y del diario en disco. Así, aunque una sesión nueva empiece desde los archivos de
+	 * texto, si el programa se corta entre guardar el snapshot y vaciar el diario, el diario viejo nunca coincide
+	 * con la generación del snapshot nuevo y se descarta al cargar.
+	 *
+	 * @param pathSnapshot      Ruta del snapshot que se va a reemplazar.
+	 * @param generacionActual  Generación del snapshot base de la sesión, o 0 si no hay.
+	 * @return La generación a usar para el próximo snapshot.
+	 * @throws IOException Si ocurre un error al leer las cabeceras.
+	 */
+	public long siguienteGeneracion(String pathSnapshot, long generacionActual) throws IOException {
+		long maxima = Math.max(generacionActual, SnapshotJuego.leerGeneracion(pathSnapshot));
+		return Math.max(maxima, leerGeneracionGuardada()) + 1;
+	}
+
+	// Generación de la cabecera del diario en disco, o -1 si no existe o no es un diario
+	private long leerGeneracionGuardada() throws IOException {
+		ByteBuffer cabecera = ByteBuffer.allocate(LARGO_CABECERA);
+		try (FileChannel lectura = FileChannel.open(path, StandardOpenOption.READ)) {
+			while (cabecera.hasRemaining() && lectura.read(cabecera) >= 0) {
+			}
+		} catch (NoSuchFileException e) {
+			return -1;
+		}
+		cabecera.flip();
+		if (cabecera.remaining() < LARGO_CABECERA || cabecera.getInt() != MAGIA || cabecera.getInt() != VERSION) {
+			return -1;
+		}
+		return cabecera.getLong();
+	}
+
+	/**
+	 * Vacía el diario y lo ancla a un snapshot recién guardado. A partir de aquí se registran los cambios.
+	 *
+	 * @param generacion Generación del snapshot base.
+	 * @throws IOException Si ocurre un error al escribir el archivo.
+	 */
+	public void iniciar(long generacion) throws IOException {
+		close();
+		canal = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		ByteBuffer cabecera = ByteBuffer.allocate(LARGO_CABECERA);
+		cabecera.putInt(MAGIA).putInt(VERSION).putLong(generacion).flip();
+		escribirCompleto(cabecera);
+		canal.force(false);
+		cantidadRegistros = 0;
+		requiereSnapshot = false;
+	}
+
+	/**
+	 * Aplica los cambios del diario sobre un estado recién cargado de un snapshot y deja el diario activo
+	 * para seguir registrando. Si el diario no existe o su base es otro snapshot, se inicia vacío.
+	 * Un registro incompleto o dañado al final se descarta, junto con lo que haya después.
+	 * Si un cambio no puede aplicarse, el diario que estaba activo sigue abierto y registrando, ya que el
+	 * juego conserva el estado anterior.
+	 *
+	 * @param generacion Generación del snapshot cargado.
+	 * @param almacen    Almacén cargado del snapshot. Los personajes creados se agregan al final.
+	 * @param ligas      Ligas del juego cargadas del snapshot. Las ligas creadas se agregan al final.
+	 * @return La cantidad de cambios aplicados.
+	 * @throws IOException Si ocurre un error al leer o si un cambio no puede aplicarse sobre el estado dado.
+	 */
+	public int reproducir(long generacion, AlmacenPersonajes almacen, List<Liga> ligas) throws IOException {
+		ByteBuffer buffer;
+		try {
+			buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+		} catch (NoSuchFileException e) {
+			iniciar(generacion);
+			return 0;
+		}
+		if (buffer.remaining() < LARGO_CABECERA || buffer.getInt() != MAGIA || buffer.getInt() != VERSION
+				|| buffer.getLong() != generacion) {
+			iniciar(generacion);
+			return 0;
+		}
+
+		CRC32 crc = new CRC32();
+		SnapshotJuego.LectorTexto lectorTexto = new SnapshotJuego.LectorTexto();
+		int aplicados = 0;
+		while (buffer.remaining() >= 2 * Integer.BYTES) {
+			int inicio = buffer.position();
+			int largo = buffer.getInt();
+			int crcEsperado = buffer.getInt();
+			if (largo <= 0 || largo > buffer.remaining()) {
+				buffer.position(inicio);
+				break;
+			}
+			crc.reset();
+			crc.update(buffer.array(), buffer.position(), largo);
+			if ((int) crc.getValue() != crcEsperado) {
+				buffer.position(inicio);
+				break;
+			}
+			ByteBuffer datos = buffer.slice();
+			datos.limit(largo);
+			aplicarCambio(datos, almacen, ligas, lectorTexto);
+			buffer.position(buffer.position() + largo);
+			aplicados++;
+		}
+
+		// Recién con todos los cambios aplicados se reemplaza el diario activo
+		close();
+		canal = FileChannel.open(path, StandardOpenOption.WRITE);
+		// Se descarta la cola que no forma un registro completo
+		canal.truncate(buffer.position());
+		canal.position(buffer.position());
+		cantidadRegistros = aplicados;
+		requiereSnapshot = false;
+		return aplicados;
+	}
+
+	/**
+	 * Registra la creación de un personaje. El personaje debe estar ya en el almacén del juego.
+	 */
+	public void registrarCrearPersonaje(Personaje p) throws IOException {
+		if (!estaActivo()) {
+			return;
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeByte(CAMBIO_CREAR_PERSONAJE);
+		out.writeByte(p.getTipoCompetidor() == TipoCompetidor.HEROE ? 1 : 0);
+		SnapshotJuego.escribirTexto(out, p.getNombre());
+		SnapshotJuego.escribirTexto(out, p.getNombreFantasia());
+		for (Caracteristica c : Caracteristica.values()) {
+			out.writeInt(p.getPromedioCaracteristica(c));
+		}
+		escribirRegistro(bytes.toByteArray());
+	}
+
+	/**
+	 * Registra la creación de una liga vacía, que queda al final de la lista de ligas del juego.
+	 */
+	public void registrarCrearLiga(Liga liga) throws IOException {
+		if (!estaActivo()) {
+			return;
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeByte(CAMBIO_CREAR_LIGA);
+		out.writeByte(liga.getTipoCompetidor() == TipoCompetidor.HEROE ? 1 : 0);
+		SnapshotJuego.escribirTexto(out, liga.getNombreLiga());
+		escribirRegistro(bytes.toByteArray());
+	}
+
+	/**
+	 * Registra que se agregó un personaje del almacén a una liga.
+	 *
+	 * @param indiceLiga  Índice de la liga en la lista de ligas del juego.
+	 * @param idPersonaje Id del personaje en el almacén.
+	 */
+	public void registrarAgregarPersonaje(int indiceLiga, int idPersonaje) throws IOException {
+		registrarAgregar(CAMBIO_AGREGAR_PERSONAJE, indiceLiga, idPersonaje);
+	}
+
+	/**
+	 * Registra que se agregó una liga a otra.
+	 *
+	 * @param indiceLiga    Índice de la liga en la lista de ligas del juego.
+	 * @param indiceSubLiga Índice de la liga agregada en la misma lista.
+	 */
+	public void registrarAgregarLiga(int indiceLiga, int indiceSubLiga) throws IOException {
+		registrarAgregar(CAMBIO_AGREGAR_LIGA, indiceLiga, indiceSubLiga);
+	}
+
+	private void registrarAgregar(byte tipoCambio, int indiceLiga, int indiceMiembro) throws IOException {
+		if (!estaActivo()) {
+			return;
+		}
+		ByteBuffer datos = ByteBuffer.allocate(1 + 2 * Integer.BYTES);
+		datos.put(tipoCambio).putInt(indiceLiga).putInt(indiceMiembro);
+		escribirRegistro(datos.array());
+	}
+
+	private void escribirRegistro(byte[] datos) throws IOException {
+		CRC32 crc = new CRC32();
+		crc.update(datos);
+		ByteBuffer registro = ByteBuffer.allocate(2 * Integer.BYTES + datos.length);
+		registro.putInt(datos.length).putInt((int) crc.getValue()).put(datos).flip();
+		long inicio = canal.position();
+		try {
+			escribirCompleto(registro);
+			canal.force(false);
+		} catch (IOException e) {
+			descartarDesde(inicio, e);
+			throw e;
+		}
+		cantidadRegistros++;
+	}
+
+	/**
+	 * Después de una escritura fallida (por ejemplo, con el disco lleno) se quita lo que haya quedado del registro,
+	 * para no perder al cargar los registros anteriores, que ya están en disco. El cambio quedó en el juego pero no
+	 * en el diario, así que el diario se desactiva hasta que el estado se guarde en un snapshot nuevo.
+	 */
+	private void descartarDesde(long inicio, IOException error) {
+		try {
+			canal.truncate(inicio);
+			canal.force(false);
+		} catch (IOException e) {
+			error.addSuppressed(e);
+		}
+		try {
+			close();
+		} catch (IOException e) {
+			error.addSuppressed(e);
+		}
+		requiereSnapshot = true;
+	}
+
+	private void escribirCompleto(ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			canal.write(buffer);
+		}
+	}
+
+	private static void aplicarCambio(ByteBuffer datos, AlmacenPersonajes almacen, List<Liga> ligas, SnapshotJuego.LectorTexto lectorTexto) throws IOException {
+		try {
+			byte tipoCambio = datos.get();
+			switch (tipoCambio) {
+			case CAMBIO_CREAR_PERSONAJE: {
+				TipoCompetidor tipo = datos.get() == 1 ? TipoCompetidor.HEROE : TipoCompetidor.VILLANO;
+				String nombre = lectorTexto.leer(datos);
+				String nombreFantasia = lectorTexto.leer(datos);
+				int[] valores = new int[Caracteristica.values().length];
+				for (int i = 0; i < valores.length; i++) {
+					valores[i] = datos.getInt();
+				}
+				almacen.agregar(new Personaje(nombre, nombreFantasia, valores, tipo));
+				break;
+			}
+			case CAMBIO_CREAR_LIGA: {
+				TipoCompetidor tipo = datos.get() == 1 ? TipoCompetidor.HEROE : TipoCompetidor.VILLANO;
+				ligas.add(new Liga(lectorTexto.leer(datos), tipo));
+				break;
+			}
+			case CAMBIO_AGREGAR_PERSONAJE:
+				ligas.get(datos.getInt()).agregarCompetidorALiga(almacen.getPersonaje(datos.getInt()));
+				break;
+			case CAMBIO_AGREGAR_LIGA:
+				ligas.get(datos.getInt()).agregarCompetidorALiga(ligas.get(datos.getInt()));
+				break;
+			default:
+				throw new IOException("Tipo de cambio desconocido en el diario: " + tipoCambio);
+			}
+		} catch (IOException e) {
+			throw e;
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new IOException("El diario no corresponde al snapshot cargado", e);
+		} catch (Exception e) {
+			// Las ligas rechazan el cambio: el diario no corresponde al estado cargado
+			throw new IOException("No se pudo aplicar un cambio del diario: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Cierra el archivo del diario. El diario queda inactivo hasta volver a iniciarlo o reproducirlo.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (canal != null) {
+			canal.close();
+			canal = null;
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package com.heroesyvillanos;
+
+import java.util.List;
+
+/**
+ * Interfaz para los índices que el juego mantiene sobre sus personajes y ligas.
+ * El juego avisa a cada índice cuando se crea un competidor o cambian sus promedios, y lo
+ * reconstruye completo cuando reemplaza sus datos (por ejemplo, al cargar un archivo).
+ */
+public interface IndiceCompetidores {
+
+	/**
+	 * Agrega un competidor nuevo al índice.
+	 *
+	 * @param c Competidor a agregar.
+	 */
+	void agregar(Competidor c);
+
+	/**
+	 * Actualiza la posición de un competidor cuyos promedios pueden haber cambiado.
+	 * Si el competidor no estaba en el índice, se agrega.
+	 *
+	 * @param c Competidor a actualizar.
+	 */
+	void actualizar(Competidor c);
+
+	/**
+	 * Descarta el contenido del índice y lo arma de nuevo con los competidores dados.
+	 *
+	 * @param competidores Todos los competidores que debe contener el índice.
+	 */
+	void reconstruir(List<? extends Competidor> competidores);
+}
@@ -0,0 +1,363 @@
+package com.heroesyvillanos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Clase IndiceOrdenado que mantiene a los personajes o a las ligas ordenados según un Ordenamiento, para listarlos
+ * sin ordenar todo de nuevo en cada consulta.
+ *
+ * Los competidores se guardan en un treap (árbol binario de búsqueda balanceado con prioridades al azar) con una
+ * copia de sus promedios en los criterios del orden. Cada nodo guarda además el tamaño de su subárbol, así que
+ * también se puede saber en qué puesto está un competidor y quién está en un puesto dado sin recorrer el árbol.
+ * Agregar o actualizar un competidor, y las consultas por puesto, cuestan O(log n) en promedio; leer los primeros k
+ * o un tramo de valores cuesta O(log n + k). El orden descendente es el mismo árbol recorrido al revés.
+ *
+ * Los empates se resuelven por el orden en que los competidores entraron al índice, que se conserva al actualizarlos.
+ * Como el juego agrega los competidores en el orden de sus listas, el resultado coincide con ordenar la lista con
+ * el Ordenamiento de forma estable (e invertirla, si el orden es descendente).
+ *
+ * @param <T> Clase de competidores que guarda el índice; los de otra clase se ignoran.
+ */
+public class IndiceOrdenado<T extends Competidor> implements IndiceCompetidores {
+	private final Class<T> clase;
+	private final Caracteristica[] criterios;
+	private Nodo<T> raiz = null;
+	// Prioridades de los nodos; con semilla fija la forma del árbol es la misma en cada ejecución
+	private final SplittableRandom prioridades = new SplittableRandom(0x5EED);
+	// Entrada guardada de cada competidor, para quitarla con los valores que tenía al indexarlo
+	private final Map<Competidor, Entrada<T>> entradas = new IdentityHashMap<Competidor, Entrada<T>>();
+	private long siguienteOrden = 0;
+
+	/**
+	 * @param clase        Clase de competidores a indexar, por ejemplo Personaje.class.
+	 * @param ordenamiento Orden del índice. Se copian sus criterios, así que cambiarlo después no afecta al índice.
+	 */
+	public IndiceOrdenado(Class<T> clase, Ordenamiento ordenamiento) {
+		this.clase = clase;
+		this.criterios = ordenamiento.getCriterios();
+	}
+
+	@Override
+	public void agregar(Competidor c) {
+		actualizar(c);
+	}
+
+	@Override
+	public void actualizar(Competidor c) {
+		if (!clase.isInstance(c)) {
+			return;
+		}
+		Entrada<T> anterior = entradas.remove(c);
+		long orden;
+		if (anterior != null) {
+			raiz = quitar(raiz, anterior);
+			orden = anterior.orden;
+		} else {
+			orden = siguienteOrden++;
+		}
+		Entrada<T> nueva = new Entrada<T>(valores(c), orden, clase.cast(c));
+		raiz = insertar(raiz, new Nodo<T>(nueva, prioridades.nextInt()));
+		entradas.put(c, nueva);
+	}
+
+	@Override
+	public void reconstruir(List<? extends Competidor> competidores) {
+		raiz = null;
+		entradas.clear();
+		siguienteOrden = 0;
+		for (Competidor c : competidores) {
+			actualizar(c);
+		}
+	}
+
+	private int[] valores(Competidor c) {
+		int[] valores = new int[criterios.length];
+		for (int k = 0; k < criterios.length; k++) {
+			valores[k] = c.getPromedioCaracteristica(criterios[k]);
+		}
+		return valores;
+	}
+
+	/**
+	 * Indica si el índice ordena por los mismos criterios que una lista de características.
+	 *
+	 * @param caracteristicas Criterios a comparar, con o sin repetidos.
+	 * @return True si ordenar con esas características da el mismo orden que el índice.
+	 */
+	public boolean ordenaPor(List<Caracteristica> caracteristicas) {
+		if (caracteristicas == null || caracteristicas.isEmpty()) {
+			return false;
+		}
+		return Arrays.equals(criterios, new Ordenamiento().setearOrdenCaracteristicas(caracteristicas).getCriterios());
+	}
+
+	/**
+	 * @param ascendente true para recorrer de menor a mayor, false de mayor a menor.
+	 * @return Todos los competidores del índice, en orden.
+	 */
+	public List<T> listar(boolean ascendente) {
+		return primeros(entradas.size(), ascendente);
+	}
+
+	/**
+	 * Obtiene los primeros k competidores en orden, sin recorrer el resto.
+	 *
+	 * @param k          Cantidad de competidores a obtener.
+	 * @param ascendente true para los k menores, false para los k mayores.
+	 * @return Una lista nueva con a lo sumo k competidores.
+	 * @throws IllegalArgumentException Si k es negativo.
+	 */
+	public List<T> primeros(int k, boolean ascendente) throws IllegalArgumentException {
+		if (k < 0) {
+			throw new IllegalArgumentException("La cantidad de competidores no puede ser negativa");
+		}
+		k = Math.min(k, size());
+		return recorrer(ascendente ? 0 : size() - k, ascendente ? k : size(), ascendente);
+	}
+
+	/**
+	 * Obtiene los competidores cuyo promedio en el primer criterio está entre dos valores, en orden.
+	 *
+	 * @param minimo     Valor mínimo, inclusive.
+	 * @param maximo     Valor máximo, inclusive.
+	 * @param ascendente true para recorrer el tramo de menor a mayor, false de mayor a menor.
+	 * @return Una lista nueva con los competidores del tramo.
+	 */
+	public List<T> rango(int minimo, int maximo, boolean ascendente) {
+		if (minimo > maximo) {
+			return new ArrayList<T>();
+		}
+		// Cotas que quedan antes y después de todas las entradas con esos valores en el primer criterio
+		Entrada<T> desde = new Entrada<T>(new int[] {minimo}, Long.MIN_VALUE, null);
+		Entrada<T> hasta = new Entrada<T>(new int[] {maximo}, Long.MAX_VALUE, null);
+		return recorrer(contarMenores(desde), contarMenores(hasta), ascendente);
+	}
+
+	/**
+	 * Obtiene el puesto de un competidor en el orden del índice.
+	 *
+	 * @param c          Competidor buscado.
+	 * @param ascendente true para contar desde el menor, false desde el mayor.
+	 * @return El puesto, desde 1, o 0 si el competidor no está en el índice.
+	 */
+	public int posicionDe(Competidor c, boolean ascendente) {
+		Entrada<T> entrada = entradas.get(c);
+		if (entrada == null) {
+			return 0;
+		}
+		int menores = contarMenores(entrada);
+		return ascendente ? menores + 1 : size() - menores;
+	}
+
+	/**
+	 * Obtiene el competidor que ocupa un puesto en el orden del índice.
+	 *
+	 * @param puesto     Puesto buscado, desde 1.
+	 * @param ascendente true para contar desde el menor, false desde el mayor.
+	 * @return El competidor en ese puesto.
+	 * @throws IllegalArgumentException Si el puesto no está entre 1 y la cantidad de competidores indexados.
+	 */
+	public T enPosicion(int puesto, boolean ascendente) throws IllegalArgumentException {
+		if (puesto < 1 || puesto > size()) {
+			throw new IllegalArgumentException("El puesto debe estar entre 1 y " + size());
+		}
+		int i = ascendente ? puesto - 1 : size() - puesto;
+		Nodo<T> nodo = raiz;
+		while (true) {
+			int izquierda = tamanio(nodo.izquierdo);
+			if (i < izquierda) {
+				nodo = nodo.izquierdo;
+			} else if (i == izquierda) {
+				return nodo.entrada.competidor;
+			} else {
+				i -= izquierda + 1;
+				nodo = nodo.derecho;
+			}
+		}
+	}
+
+	/**
+	 * Cantidad de entradas del árbol menores que una entrada o cota.
+	 */
+	private int contarMenores(Entrada<T> cota) {
+		int menores = 0;
+		Nodo<T> nodo = raiz;
+		while (nodo != null) {
+			if (nodo.entrada.compareTo(cota) < 0) {
+				menores += tamanio(nodo.izquierdo) + 1;
+				nodo = nodo.derecho;
+			} else {
+				nodo = nodo.izquierdo;
+			}
+		}
+		return menores;
+	}
+
+	/**
+	 * Competidores con índice ascendente en [desde, hasta), en el sentido pedido.
+	 */
+	private List<T> recorrer(int desde, int hasta, boolean ascendente) {
+		List<T> lista = new ArrayList<T>(Math.max(hasta - desde, 0));
+		if (desde < hasta) {
+			recorrer(raiz, 0, desde, hasta, ascendente, lista);
+		}
+		return lista;
+	}
+
+	// Sólo se baja a los subárboles que tienen índices dentro del tramo, así que se visitan O(log n + k) nodos
+	private void recorrer(Nodo<T> nodo, int base, int desde, int hasta, boolean ascendente, List<T> lista) {
+		if (nodo == null || base >= hasta || base + nodo.tamanio <= desde) {
+			return;
+		}
+		int indice = base + tamanio(nodo.izquierdo);
+		Nodo<T> primero = ascendente ? nodo.izquierdo : nodo.derecho;
+		Nodo<T> segundo = ascendente ? nodo.derecho : nodo.izquierdo;
+		recorrer(primero, ascendente ? base : indice + 1, desde, hasta, ascendente, lista);
+		if (indice >= desde && indice < hasta) {
+			lista.add(nodo.entrada.competidor);
+		}
+		recorrer(segundo, ascendente ? indice + 1 : base, desde, hasta, ascendente, lista);
+	}
+
+	private static <T> int tamanio(Nodo<T> nodo) {
+		return nodo == null ? 0 : nodo.tamanio;
+	}
+
+	/**
+	 * Inserta un nodo: baja como en un árbol de búsqueda hasta encontrar un nodo de menor prioridad y ahí parte
+	 * ese subárbol en los menores y los mayores que la entrada nueva, que quedan como sus hijos.
+	 */
+	private static <T> Nodo<T> insertar(Nodo<T> nodo, Nodo<T> nuevo) {
+		if (nodo == null) {
+			return nuevo;
+		}
+		if (nuevo.prioridad > nodo.prioridad) {
+			Nodo<T>[] partes = partir(nodo, nuevo.entrada);
+			nuevo.izquierdo = partes[0];
+			nuevo.derecho = partes[1];
+			return nuevo.recalcular();
+		}
+		if (nuevo.entrada.compareTo(nodo.entrada) < 0) {
+			nodo.izquierdo = insertar(nodo.izquierdo, nuevo);
+		} else {
+			nodo.derecho = insertar(nodo.derecho, nuevo);
+		}
+		return nodo.recalcular();
+	}
+
+	private static <T> Nodo<T> quitar(Nodo<T> nodo, Entrada<T> entrada) {
+		if (nodo == null) {
+			return null;
+		}
+		int comparacion = entrada.compareTo(nodo.entrada);
+		if (comparacion == 0) {
+			return unir(nodo.izquierdo, nodo.derecho);
+		}
+		if (comparacion < 0) {
+			nodo.izquierdo = quitar(nodo.izquierdo, entrada);
+		} else {
+			nodo.derecho = quitar(nodo.derecho, entrada);
+		}
+		return nodo.recalcular();
+	}
+
+	/**
+	 * Parte un subárbol en los nodos menores que la entrada y los mayores o iguales.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static <T> Nodo<T>[] partir(Nodo<T> nodo, Entrada<T> entrada) {
+		if (nodo == null) {
+			return new Nodo[2];
+		}
+		Nodo<T>[] partes;
+		if (nodo.entrada.compareTo(entrada) < 0) {
+			partes = partir(nodo.derecho, entrada);
+			nodo.derecho = partes[0];
+			partes[0] = nodo.recalcular();
+		} else {
+			partes = partir(nodo.izquierdo, entrada);
+			nodo.izquierdo = partes[1];
+			partes[1] = nodo.recalcular();
+		}
+		return partes;
+	}
+
+	/**
+	 * Une dos subárboles donde todos los nodos del primero son menores que los del segundo.
+	 */
+	private static <T> Nodo<T> unir(Nodo<T> menores, Nodo<T> mayores) {
+		if (menores == null) {
+			return mayores;
+		}
+		if (mayores == null) {
+			return menores;
+		}
+		if (menores.prioridad > mayores.prioridad) {
+			menores.derecho = unir(menores.derecho, mayores);
+			return menores.recalcular();
+		}
+		mayores.izquierdo = unir(menores, mayores.izquierdo);
+		return mayores.recalcular();
+	}
+
+	/**
+	 * @return La cantidad de competidores indexados.
+	 */
+	public int size() {
+		return entradas.size();
+	}
+
+	/**
+	 * Nodo del treap: una entrada, su prioridad (cada nodo tiene mayor prioridad que sus hijos) y el tamaño de su subárbol.
+	 */
+	private static class Nodo<T> {
+		private final Entrada<T> entrada;
+		private final int prioridad;
+		private int tamanio = 1;
+		private Nodo<T> izquierdo;
+		private Nodo<T> derecho;
+
+		Nodo(Entrada<T> entrada, int prioridad) {
+			this.entrada = entrada;
+			this.prioridad = prioridad;
+		}
+
+		Nodo<T> recalcular() {
+			tamanio = 1 + tamanio(izquierdo) + tamanio(derecho);
+			return this;
+		}
+	}
+
+	/**
+	 * Entrada del árbol: los valores copiados al indexar y un número de orden único para desempatar.
+	 * Las cotas de búsqueda pueden tener menos valores; se comparan sólo los que tienen ambas.
+	 */
+	private static class Entrada<T> implements Comparable<Entrada<T>> {
+		private final int[] valores;
+		private final long orden;
+		private final T competidor;
+
+		Entrada(int[] valores, long orden, T competidor) {
+			this.valores = valores;
+			this.orden = orden;
+			this.competidor = competidor;
+		}
+
+		@Override
+		public int compareTo(Entrada<T> otra) {
+			int comunes = Math.min(valores.length, otra.valores.length);
+			for (int k = 0; k < comunes; k++) {
+				int resultado = Integer.compare(valores[k], otra.valores[k]);
+				if (resultado != 0) {
+					return resultado;
+				}
+			}
+			return Long.compare(orden, otra.orden);
+		}
+	}
+}
@@ -0,0 +1,171 @@
+package com.heroesyvillanos;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Clase IndiceVencedores que responde "quiénes le ganan a X empezando por la característica C" sin recorrer
+ * a todos los competidores.
+ *
+ * Por cada tipo de competidor y cada característica inicial hay un conjunto ordenado por la clave de rotación
+ * de esa característica. Como comparar claves equivale a combatir, los que le ganan a X son exactamente los
+ * de tipo opuesto con clave mayor a la de X: una búsqueda en el árbol más la lectura del tramo, O(log n + k).
+ *
+ * Las claves se copian al indexar, así que cuando cambian los promedios de un competidor hay que llamar a
+ * actualizar. Los competidores sin claves válidas (promedios fuera del rango de la clave) se guardan aparte y se
+ * comparan uno por uno.
+ */
+public class IndiceVencedores implements IndiceCompetidores {
+	private static final Caracteristica[] CARACTERISTICAS = Caracteristica.values();
+	private static final TipoCompetidor[] TIPOS = TipoCompetidor.values();
+
+	// porClave[tipo.ordinal()][caracteristica.ordinal()]
+	private final NavigableSet<Entrada>[][] porClave;
+	private final List<Set<Competidor>> sinClave = new ArrayList<Set<Competidor>>();
+	// Entradas guardadas de cada competidor (una por característica), o un array vacío si está en sinClave
+	private final Map<Competidor, Entrada[]> entradas = new IdentityHashMap<Competidor, Entrada[]>();
+	private long siguienteOrden = 0;
+
+	/**
+	 * Constructor que inicializa un índice vacío.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public IndiceVencedores() {
+		porClave = new NavigableSet[TIPOS.length][CARACTERISTICAS.length];
+		for (TipoCompetidor tipo : TIPOS) {
+			for (Caracteristica c : CARACTERISTICAS) {
+				porClave[tipo.ordinal()][c.ordinal()] = new TreeSet<Entrada>();
+			}
+			sinClave.add(Collections.newSetFromMap(new IdentityHashMap<Competidor, Boolean>()));
+		}
+	}
+
+	@Override
+	public void agregar(Competidor c) {
+		actualizar(c);
+	}
+
+	@Override
+	public void actualizar(Competidor c) {
+		quitar(c);
+		int tipo = c.getTipoCompetidor().ordinal();
+		if (!c.tieneClavesRotacion()) {
+			sinClave.get(tipo).add(c);
+			entradas.put(c, new Entrada[0]);
+			return;
+		}
+		Entrada[] nuevas = new Entrada[CARACTERISTICAS.length];
+		long orden = siguienteOrden++;
+		for (Caracteristica car : CARACTERISTICAS) {
+			nuevas[car.ordinal()] = new Entrada(c.getClaveRotacion(car), orden, c);
+			porClave[tipo][car.ordinal()].add(nuevas[car.ordinal()]);
+		}
+		entradas.put(c, nuevas);
+	}
+
+	@Override
+	public void reconstruir(List<? extends Competidor> competidores) {
+		for (NavigableSet<Entrada>[] porCaracteristica : porClave) {
+			for (NavigableSet<Entrada> conjunto : porCaracteristica) {
+				conjunto.clear();
+			}
+		}
+		for (Set<Competidor> conjunto : sinClave) {
+			conjunto.clear();
+		}
+		entradas.clear();
+		for (Competidor c : competidores) {
+			actualizar(c);
+		}
+	}
+
+	private void quitar(Competidor c) {
+		Entrada[] anteriores = entradas.remove(c);
+		if (anteriores == null) {
+			return;
+		}
+		// El tipo se toma de las entradas guardadas, por si cambió desde que se indexó
+		if (anteriores.length == 0) {
+			for (Set<Competidor> conjunto : sinClave) {
+				conjunto.remove(c);
+			}
+			return;
+		}
+		for (NavigableSet<Entrada>[] porCaracteristica : porClave) {
+			for (Caracteristica car : CARACTERISTICAS) {
+				porCaracteristica[car.ordinal()].remove(anteriores[car.ordinal()]);
+			}
+		}
+	}
+
+	/**
+	 * Obtiene los competidores indexados que le ganan a un retador, con la misma regla que Competidor.esGanador.
+	 *
+	 * @param retador        Competidor para el que se buscan los vencedores. No necesita estar en el índice.
+	 * @param caracteristica Característica con la que se inicia la comparación.
+	 * @return Los competidores de tipo opuesto que le ganan, ordenados del que le gana por menos al que le gana por más;
+	 *         al final, los que no tienen claves válidas.
+	 */
+	public List<Competidor> vencedoresContra(Competidor retador, Caracteristica caracteristica) {
+		List<Competidor> vencedores = new ArrayList<Competidor>();
+		for (TipoCompetidor tipo : TIPOS) {
+			if (tipo == retador.getTipoCompetidor()) {
+				continue;
+			}
+			NavigableSet<Entrada> conjunto = porClave[tipo.ordinal()][caracteristica.ordinal()];
+			if (retador.tieneClavesRotacion()) {
+				// Todas las entradas con la misma clave que el retador quedan antes que esta cota
+				Entrada cota = new Entrada(retador.getClaveRotacion(caracteristica), Long.MAX_VALUE, null);
+				for (Entrada e : conjunto.tailSet(cota, false)) {
+					vencedores.add(e.competidor);
+				}
+			} else {
+				for (Entrada e : conjunto) {
+					if (e.competidor.compararRotacion(retador, caracteristica) > 0) {
+						vencedores.add(e.competidor);
+					}
+				}
+			}
+			for (Competidor c : sinClave.get(tipo.ordinal())) {
+				if (c.compararRotacion(retador, caracteristica) > 0) {
+					vencedores.add(c);
+				}
+			}
+		}
+		return vencedores;
+	}
+
+	/**
+	 * @return La cantidad de competidores indexados.
+	 */
+	public int size() {
+		return entradas.size();
+	}
+
+	/**
+	 * Entrada de un conjunto ordenado: la clave copiada al indexar y un número de orden único para desempatar.
+	 */
+	private static class Entrada implements Comparable<Entrada> {
+		private final long clave;
+		private final long orden;
+		private final Competidor competidor;
+
+		Entrada(long clave, long orden, Competidor competidor) {
+			this.clave = clave;
+			this.orden = orden;
+			this.competidor = competidor;
+		}
+
+		@Override
+		public int compareTo(Entrada otra) {
+			int resultado = Long.compareUnsigned(clave, otra.clave);
+			return resultado != 0 ? resultado : Long.compare(orden, otra.orden);
+		}
+	}
+}
@@ -1,12 +1,16 @@
 package com.heroesyvillanos;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -14,14 +18,52 @@ import java.util.LinkedList;
 import java.util.Collections;
 
 public class Juego {
-	// El juego tiene una lista de personajes y de ligas, así como un menu
-	private List<Personaje> personajes = new ArrayList<Personaje>();
+	// El juego tiene un almacén de personajes y una lista de ligas, así como un menu
+	private AlmacenPersonajes almacenPersonajes = new AlmacenPersonajes();
+	// Vista de sólo lectura de los personajes del almacén, en orden de id
+	private List<Personaje> personajes = almacenPersonajes.getPersonajes();
 	private List<Liga> ligas = new ArrayList<Liga>();
+	// Índices por nombre de personajes y ligas, actualizados en cada carga o creación
+	private RegistroNombres registro = new RegistroNombres();
+	// Índices ordenados sobre personajes y ligas, avisados de cada creación o cambio de promedios
+	private IndiceVencedores indiceVencedores = new IndiceVencedores();
+	private List<IndiceOrdenado<Personaje>> indicesPersonajes = crearIndicesOrdenados(Personaje.class);
+	private List<IndiceOrdenado<Liga>> indicesLigas = crearIndicesOrdenados(Liga.class);
+	private List<IndiceCompetidores> indices = new ArrayList<IndiceCompetidores>();
+	{
+		indices.add(indiceVencedores);
+		indices.addAll(indicesPersonajes);
+		indices.addAll(indicesLigas);
+	}
     private Menu menu = new Menu();
+    // Resultados de combates ya calculados; se descartan solos cuando cambian los promedios de un competidor
+    private CacheCombates cacheCombates = new CacheCombates();
     
     // Rutas de los archivos de entrada para personajes y ligas
     private static final String pathPersonajesIn = "src/personajes.in";
     private static final String pathLigasIn = "src/ligas.in";
+    // Ruta del snapshot binario con el estado completo del juego, y del diario con los cambios hechos desde ese snapshot
+    private static final String pathSnapshot = "src/juego.snapshot";
+    private static final String pathDiario = "src/juego.diario";
+    // Tamaño del buffer al escribir personajes.in y ligas.in
+    private static final int TAMANIO_BUFFER_ARCHIVO = 64 * 1024;
+    // Cantidad de cambios registrados a partir de la cual el diario se compacta en un nuevo snapshot
+    private static final int MAX_REGISTROS_DIARIO = 1000;
+    // Cantidad de combates y semilla de la simulación con característica al azar
+    private static final long COMBATES_SIMULACION = 1_000_000;
+    private static final long SEMILLA_SIMULACION = 2024;
+    // Órdenes más usados en los listados, que se mantienen indexados: el orden por defecto y cada característica sola
+    private static final List<List<Caracteristica>> CRITERIOS_INDEXADOS = new ArrayList<List<Caracteristica>>();
+    static {
+    	CRITERIOS_INDEXADOS.add(new Ordenamiento().getOrdenCaracteristicas());
+    	for (Caracteristica c : Caracteristica.values()) {
+    		CRITERIOS_INDEXADOS.add(Arrays.asList(c));
+    	}
+    }
+    
+    // El diario se activa al guardar o cargar el estado del juego
+    private DiarioCambios diario = new DiarioCambios(pathDiario);
+    private long generacionSnapshot = 0;
     
     /**
      * Muestra el mensaje de bienvenida en la interfaz de usuario, invocando el método
@@ -53,6 +95,12 @@ public class Juego {
 		            menuReportes();
 		            break;
 		        case 5:
+		        	guardarEstado(pathSnapshot);
+		            break;
+		        case 6:
+		        	cargarEstado(pathSnapshot);
+		            break;
+		        case 7:
 		        	System.exit(0);
 		            break;
 	    	}
@@ -61,6 +109,105 @@ public class Juego {
 		}
     }
     
+    /**
+     * Guarda el estado completo del juego (personajes, ligas y sus promedios) en un snapshot binario.
+     * Los archivos de texto no se modifican. Desde aquí, los cambios siguientes se registran en el diario.
+     *
+     * @param path La ruta del archivo donde se guardará el snapshot.
+     * @throws Exception Si ocurre un error al escribir el archivo.
+     */
+    private void guardarEstado(String path) throws Exception {
+    	menu.mostrarTitulo("guardarEstado");
+    	
+    	try {
+    		compactarEstado(path);
+    	} catch (IOException e) {
+    		menu.throwException("io");
+    	}
+    	
+    	menu.mostrarFinal("guardarEstado");
+    }
+    
+    /**
+     * Escribe un snapshot con una generación nueva y vacía el diario, que queda anclado a ese snapshot.
+     * La generación supera a las guardadas en disco, así que si el programa se corta entre ambos pasos el diario viejo
+     * se descarta al cargar, aunque la sesión haya empezado desde los archivos de texto.
+     *
+     * @param path La ruta del archivo donde se guardará el snapshot.
+     * @throws IOException Si ocurre un error al escribir el snapshot o el diario.
+     */
+    private void compactarEstado(String path) throws IOException {
+    	long generacion = diario.siguienteGeneracion(path, generacionSnapshot);
+    	SnapshotJuego.guardar(path, almacenPersonajes, ligas, generacion);
+    	generacionSnapshot = generacion;
+    	diario.iniciar(generacionSnapshot);
+    }
+    
+    /**
+     * Compacta el diario en un nuevo snapshot si ya tiene demasiados registros, para que cargar el estado
+     * no tenga que reproducir un diario cada vez más largo, o si falló la escritura de un registro anterior
+     * y el diario ya no describe el estado del juego.
+     *
+     * @throws IOException Si ocurre un error al escribir el snapshot o el diario.
+     */
+    private void compactarSiCorresponde() throws IOException {
+    	if (diario.requiereSnapshot() || (diario.estaActivo() && diario.getCantidadRegistros() >= MAX_REGISTROS_DIARIO)) {
+    		compactarEstado(pathSnapshot);
+    	}
+    }
+    
+    /**
+     * Cuando el diario está en uso y el estado se reemplaza desde los archivos de texto, el diario ya no
+     * describe cambios sobre el snapshot, así que se compacta en uno nuevo.
+     *
+     * @throws Exception Si ocurre un error al escribir el snapshot o el diario.
+     */
+    private void compactarTrasCargaDeTexto() throws Exception {
+    	if (diario.estaActivo() || diario.requiereSnapshot()) {
+    		try {
+    			compactarEstado(pathSnapshot);
+    		} catch (IOException e) {
+    			menu.throwException("io");
+    		}
+    	}
+    }
+    
+    /**
+     * Reemplaza el estado del juego por el guardado en un snapshot binario, más los cambios registrados en el diario.
+     * No se buscan nombres ni se recalculan promedios: sólo se vuelven a armar los índices por nombre.
+     *
+     * @param path La ruta del snapshot a cargar.
+     * @throws Exception Si el archivo no existe, no es un snapshot válido o no puede leerse.
+     */
+    private void cargarEstado(String path) throws Exception {
+    	menu.mostrarTitulo("cargarEstado");
+    	
+    	SnapshotJuego snapshot = null;
+    	List<Liga> ligasCargadas = null;
+    	int cambiosRecuperados = 0;
+    	try {
+    		snapshot = SnapshotJuego.cargar(path);
+    		// Los cambios hechos después del snapshot se recuperan del diario, que queda activo
+    		ligasCargadas = new ArrayList<Liga>(snapshot.getLigas());
+    		cambiosRecuperados = diario.reproducir(snapshot.getGeneracion(), snapshot.getAlmacenPersonajes(), ligasCargadas);
+    	} catch (NoSuchFileException e) {
+    		menu.throwException("fileNotFound", path);
+    	} catch (IOException e) {
+    		menu.throwException("formatoSnapshot", e.getMessage());
+    	}
+    	
+    	this.generacionSnapshot = snapshot.getGeneracion();
+    	this.almacenPersonajes = snapshot.getAlmacenPersonajes();
+    	this.personajes = almacenPersonajes.getPersonajes();
+    	this.ligas = ligasCargadas;
+    	registro.reemplazarPersonajes(this.personajes);
+    	registro.reemplazarLigas(this.ligas);
+    	reconstruirIndices();
+    	
+    	menu.mostrarResultado("cargarEstado", 1, String.valueOf(cambiosRecuperados));
+    	menu.mostrarFinal("cargarEstado");
+    }
+    
     // ========== INICIO MENU PERSONAJES ==========
 
     /**
@@ -74,7 +221,11 @@ public class Juego {
 
           switch (seleccion) {
             case 1:
-        		this.personajes = cargarPersonajesDesdeArchivo(pathPersonajesIn);
+        		this.almacenPersonajes = cargarPersonajesDesdeArchivo(pathPersonajesIn);
+        		this.personajes = almacenPersonajes.getPersonajes();
+        		registro.reemplazarPersonajes(this.personajes);
+        		reconstruirIndices();
+        		compactarTrasCargaDeTexto();
                 break;
             case 2:
                 crearPersonaje();
@@ -96,56 +247,32 @@ public class Juego {
      * Carga una lista de personajes desde un archivo específico.
      * 
      * @param path La ruta del archivo desde el cual cargar los personajes.
-     * @return Una lista de personajes cargados desde el archivo.
+     * @return Un almacén con los personajes cargados desde el archivo.
      * @throws Exception Si hay errores al leer o procesar el archivo, o si se encuentra un formato incorrecto de datos.
      */
-    private ArrayList<Personaje> cargarPersonajesDesdeArchivo(String path) throws Exception {
+    private AlmacenPersonajes cargarPersonajesDesdeArchivo(String path) throws Exception {
     	
 		menu.mostrarTitulo("cargarPersonajes");
 		
-		// Inicializo array de personajes
-		ArrayList<Personaje> listaPersonaje = new ArrayList<Personaje>();
-		
-		try (
-			BufferedReader br = new BufferedReader(new FileReader(path))) {
-	            String line;
-	            // La cabecera es leída pero la descartaremos       
-	            line = br.readLine(); 
-	            TipoCompetidor heovi = TipoCompetidor.VILLANO;
-	            
-	            while ((line = br.readLine()) != null) {
-	            	String[] atributos = line.split(",");
-	            	Map<Caracteristica, Integer> caract = new HashMap<Caracteristica, Integer>();
-	            	
-	            	// Mapeo de las características al HashMap
-	            	caract.put(Caracteristica.VELOCIDAD, 	Integer.valueOf(atributos[3].trim()));
-	            	caract.put(Caracteristica.FUERZA, 		Integer.valueOf(atributos[4].trim()));
-	            	caract.put(Caracteristica.RESISTENCIA, 	Integer.valueOf(atributos[5].trim()));
-	            	caract.put(Caracteristica.DESTREZA, 	Integer.valueOf(atributos[6].trim()));
-	            	
-	            	if (atributos[0].equals("Heroe")) {
-	            		heovi = TipoCompetidor.HEROE;
-	            	} else if (atributos[0].equals("Villano")) {
-	            		heovi = TipoCompetidor.VILLANO;
-	            	} else {
-	            		menu.throwException("tipoCompetidor");
-	            	}
-	            	// Intentamos crear un personaje con todos los datos de la línea.
-	            	Personaje p = new Personaje(atributos[1].trim(), atributos[2].trim(), caract, heovi);
-	            	
-	            	listaPersonaje.add(p);
-	            }
-	            
-	            br.close();
+		// Inicializo el almacén de personajes
+		AlmacenPersonajes almacen = new AlmacenPersonajes();
+		
+		try {
+			// El lector recorre el archivo una sola vez y agrega cada fila directamente al almacén.
+			// La cabecera es leída pero la descartamos
+			almacen = LectorPersonajes.leer(path);
 		} catch (FileNotFoundException e) {	        	
 			menu.throwException("fileNotFound", path);
 		} catch (IOException e) {
 			menu.throwException("io");
+		} catch (IllegalArgumentException e) {
+			// El mensaje indica la línea y columna del error
+			menu.throwException("formatoArchivo", e.getMessage());
 		}
 		
 		menu.mostrarFinal("cargarPersonajes");
 	        
-		return listaPersonaje;
+		return almacen;
 	}
 	
     /**
@@ -171,14 +298,9 @@ public class Juego {
 				error = true;
 			}
 			
-			// Para cada personaje ya existente, controlamos que no exista uno con el mismo nombreFantasia
-			if (!personajes.isEmpty()) {
-				for (Personaje personaje : personajes) {
-					if (personaje.getNombreFantasia().equals(nombreFantasia)) {
-						error = true;
-						break;
-					}
-				}
+			// Controlamos en el registro que no exista un personaje con el mismo nombreFantasia
+			if (registro.existePersonaje(nombreFantasia)) {
+				error = true;
 			}
 		} while (error);
 		
@@ -197,7 +319,18 @@ public class Juego {
 		mapCaracteristicas = menu.registrarCaracteristicas();
 	
 		// Intentamos crear un personaje con todos los datos ingresados.
-		personajes.add(new Personaje(nombreReal, nombreFantasia, mapCaracteristicas, tipo));
+		Personaje personaje = new Personaje(nombreReal, nombreFantasia, mapCaracteristicas, tipo);
+		almacenPersonajes.agregar(personaje);
+		registro.registrarPersonaje(personaje);
+		for (IndiceCompetidores indice : indices) {
+			indice.agregar(personaje);
+		}
+		try {
+			diario.registrarCrearPersonaje(personaje);
+			compactarSiCorresponde();
+		} catch (IOException e) {
+			menu.throwException("io");
+		}
 		
 		menu.mostrarFinal("crearPersonaje");
 	}
@@ -225,11 +358,12 @@ public class Juego {
 	private void guardarPersonajesEnArchivo(List<Personaje> lista, String path) throws Exception {
 		menu.mostrarTitulo("guardarPersonajes");
 		
-		try (BufferedWriter writer = new BufferedWriter(new FileWriter(path))) {
+		// Cada personaje se escribe directamente en el buffer del archivo, sin armar un String por línea
+		try (BufferedWriter writer = new BufferedWriter(new FileWriter(path), TAMANIO_BUFFER_ARCHIVO)) {
 			writer.write("Héroe/Villano, NombreReal, NombrePersonaje, Velocidad, Fuerza, Resistencia, Destreza");
 			writer.newLine();
 			for (Personaje personaje : lista) {
-				writer.write(personaje.toFileLine());
+				personaje.writeTo(writer);
 				writer.newLine();
 			}
         } catch (IOException e) {
@@ -251,7 +385,10 @@ public class Juego {
         
         switch (seleccion) {
         case 1:
-    		this.ligas = cargarLigasDesdeArchivo(this.personajes, pathLigasIn);
+    		this.ligas = cargarLigasDesdeArchivo(pathLigasIn, this.ligas);
+    		registro.reemplazarLigas(this.ligas);
+    		reconstruirIndices();
+    		compactarTrasCargaDeTexto();
         	break;
         case 2:
             crearLiga();
@@ -274,60 +411,40 @@ public class Juego {
   
 	/**
 	 * Carga las ligas desde un archivo, generando instancias de ligas a partir de la información almacenada.
-	 * Lee el archivo y crea ligas con los competidores correspondientes (personajes o ligas) en base a los nombres
-	 * especificados en el archivo.
+	 * Las ligas se arman con un CargadorLigas, que lee todas las definiciones antes de construirlas, por lo que
+	 * una liga puede nombrar como miembro a otra definida en cualquier línea del archivo. Los personajes se
+	 * buscan en el registro de nombres. Los miembros o ligas que no pueden cargarse se informan uno por uno.
 	 *
-	 * @param listPersonaje La lista de personajes disponibles para generar las ligas.
 	 * @param path          La ruta del archivo desde donde se cargarán las ligas.
+	 * @param anteriores    Ligas que se reemplazan. Sus miembros se liberan sólo después de leer el archivo.
 	 * @return Una lista de instancias de Liga creadas a partir de la información del archivo.
-	 * @throws Exception Si ocurre algún error durante la lectura del archivo o la creación de las ligas.
+	 * @throws Exception Si ocurre algún error durante la lectura del archivo.
 	 */
-  	private ArrayList<Liga> cargarLigasDesdeArchivo(List<Personaje>listPersonaje, String path) throws Exception {
+  	private ArrayList<Liga> cargarLigasDesdeArchivo(String path, List<Liga> anteriores) throws Exception {
   		
 		menu.mostrarTitulo("cargarLigas");
 		ArrayList<Liga> listaLiga = new ArrayList<Liga>();
+		CargadorLigas cargador = new CargadorLigas(registro);
 		
-		boolean algunaLigaNoCreada = false;
-		
-        try (
-        	BufferedReader br = new BufferedReader(new FileReader(path))) {
-            String line;
-            TipoCompetidor heovi = TipoCompetidor.VILLANO;
-            
-            while ((line = br.readLine()) != null) {   	
-            	ArrayList<Competidor> competidores = new ArrayList<Competidor>();          	
-            	String[] ligaString = line.split(",");
-            	
-            	for (String personajeNombre : ligaString) {
-            		// Agrego los personajes
-            		for (Personaje per : listPersonaje) {						
-						if(per.getNombreFantasia().trim().equals(personajeNombre.trim() )) {
-							heovi = per.isTipoCompetidor();
-							competidores.add(per);
-						}						
-					}
-            		// Agrego las ligas
-            		for(Liga lig : listaLiga) {
-            			if(lig.getNombre().trim().equals(personajeNombre.trim() )) {
-            				heovi=lig.isTipoCompetidor();
-							competidores.add(lig);
-						}
-            		}
-				}
-            	if(!competidores.isEmpty()) {
-            		listaLiga.add(new Liga(ligaString[0], competidores, heovi));
-            	} else {
-            		algunaLigaNoCreada = true;
-            	}
-            }	            
-        } catch (FileNotFoundException e) {	        	
+		// El archivo se lee completo antes de tocar las ligas anteriores: si falla, siguen como estaban
+		String contenido = null;
+        try {
+        	contenido = new String(Files.readAllBytes(Paths.get(path)), Charset.defaultCharset());
+        } catch (NoSuchFileException e) {	        	
         	menu.throwException("fileNotFound", path);     	
         } catch (IOException e) {
         	menu.throwException("io");
         }
         
-        if (algunaLigaNoCreada) {
+        // Las ligas anteriores se descartan, así que sus miembros quedan libres para las nuevas
+        for (Liga liga : anteriores) {
+        	liga.liberarCompetidores();
+        }
+        listaLiga.addAll(cargador.cargar(new StringReader(contenido)));
+        
+        if (!cargador.getProblemas().isEmpty()) {
         	menu.mostrarError("cargarLigas");
+        	menu.mostrarLineas(cargador.getProblemas());
 		} else {
 			menu.mostrarFinal("cargarLigas");
 		}
@@ -361,7 +478,18 @@ public class Juego {
 		// Usamos false para indicarle a ingresoTipo que es una liga
 		tipoLiga = menu.ingresoTipo(false);
 		
-		ligas.add(new Liga(nombreLiga, tipoLiga));
+		Liga nuevaLiga = new Liga(nombreLiga, tipoLiga);
+		ligas.add(nuevaLiga);
+		registro.registrarLiga(nuevaLiga);
+		for (IndiceCompetidores indice : indices) {
+			indice.agregar(nuevaLiga);
+		}
+		try {
+			diario.registrarCrearLiga(nuevaLiga);
+			compactarSiCorresponde();
+		} catch (IOException e) {
+			menu.throwException("io");
+		}
 		
 		menu.mostrarFinal("crearLiga");
 		
@@ -411,7 +539,7 @@ public class Juego {
 	/**
 	 * Guarda la lista de ligas en un archivo específico, mostrando un mensaje de inicio y finalización
 	 * de la operación. Cada liga se escribe como una línea en el archivo utilizando su formato
-	 * definido por el método "toFileLine()" de la clase Liga.
+	 * definido por el método "toFileLine()" de la clase Liga, escrita directamente en el archivo con "writeTo".
 	 *
 	 * @param lista La lista de ligas a ser guardada en el archivo.
 	 * @param path La ruta del archivo donde se guardarán las ligas.
@@ -419,9 +547,9 @@ public class Juego {
 	 */
 	private void guardarLigasEnArchivo(List<Liga> lista, String path) throws Exception {
 		menu.mostrarTitulo("guardarLigas");
-		try (BufferedWriter writer = new BufferedWriter(new FileWriter(path))) {
+		try (BufferedWriter writer = new BufferedWriter(new FileWriter(path), TAMANIO_BUFFER_ARCHIVO)) {
 			for (Liga liga : lista) {
-				writer.write(liga.toFileLine());
+				liga.writeTo(writer);
 				writer.newLine();
 			}			
         } catch (IOException e) {
@@ -502,6 +630,13 @@ public class Juego {
 		
 		// Intentamos agregar a la liga pasada por parámetro el personaje seleccionado
 		ligas.get(indexLiga).agregarCompetidorALiga(personajes.get(seleccion - 1));
+		actualizarIndicesDesde(ligas.get(indexLiga));
+		try {
+			diario.registrarAgregarPersonaje(indexLiga, seleccion - 1);
+			compactarSiCorresponde();
+		} catch (IOException e) {
+			menu.throwException("io");
+		}
 		
 		menu.mostrarFinal("ligaAgregarPersonaje");
 	}
@@ -524,10 +659,73 @@ public class Juego {
 		
 		// Intentamos agregar a la liga pasada por parámetro la liga seleccionada
 		ligas.get(indexLiga).agregarCompetidorALiga(ligas.get(seleccion - 1));
+		actualizarIndicesDesde(ligas.get(indexLiga));
+		try {
+			diario.registrarAgregarLiga(indexLiga, seleccion - 1);
+			compactarSiCorresponde();
+		} catch (IOException e) {
+			menu.throwException("io");
+		}
 		
 		menu.mostrarFinal("ligaAgregarLiga");
 	}
 	
+	/**
+	 * Avisa a los índices que cambiaron los promedios de una liga y, por lo tanto, los de todas las ligas que la contienen.
+	 *
+	 * @param liga Liga a la que se le agregó un competidor.
+	 */
+	private void actualizarIndicesDesde(Liga liga) {
+		for (Liga actual = liga; actual != null; actual = actual.getLigaPadre()) {
+			for (IndiceCompetidores indice : indices) {
+				indice.actualizar(actual);
+			}
+		}
+	}
+	
+	/**
+	 * Crea un índice ordenado por cada lista de CRITERIOS_INDEXADOS.
+	 *
+	 * @param clase Clase de competidores a indexar.
+	 * @return Los índices, vacíos.
+	 */
+	private static <T extends Competidor> List<IndiceOrdenado<T>> crearIndicesOrdenados(Class<T> clase) {
+		List<IndiceOrdenado<T>> creados = new ArrayList<IndiceOrdenado<T>>();
+		for (List<Caracteristica> criterios : CRITERIOS_INDEXADOS) {
+			creados.add(new IndiceOrdenado<T>(clase, new Ordenamiento().setearOrdenCaracteristicas(criterios)));
+		}
+		return creados;
+	}
+	
+	/**
+	 * Busca un índice ordenado por los criterios dados.
+	 *
+	 * @param candidatos Índices entre los que buscar.
+	 * @param criterios  Criterios del orden buscado.
+	 * @return El índice, o null si ninguno ordena por esos criterios.
+	 */
+	private static <T extends Competidor> IndiceOrdenado<T> buscarIndiceOrdenado(List<IndiceOrdenado<T>> candidatos,
+			List<Caracteristica> criterios) {
+		for (IndiceOrdenado<T> indice : candidatos) {
+			if (indice.ordenaPor(criterios)) {
+				return indice;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Arma de nuevo los índices con todos los personajes y ligas del juego, después de reemplazarlos.
+	 */
+	private void reconstruirIndices() {
+		List<Competidor> competidores = new ArrayList<Competidor>(personajes.size() + ligas.size());
+		competidores.addAll(personajes);
+		competidores.addAll(ligas);
+		for (IndiceCompetidores indice : indices) {
+			indice.reconstruir(competidores);
+		}
+	}
+	
 	/**
 	 * Verifica si una cadena no está en blanco y no está vacía.
 	 *
@@ -541,17 +739,13 @@ public class Juego {
 	}
 	
 	/**
-	 * Verifica si existe una liga en la memoria con un nombre específico (ignorando mayúsculas y minúsculas).
+	 * Verifica si existe una liga en la memoria con un nombre específico (ignorando mayúsculas, minúsculas y espacios al inicio o al final).
 	 *
 	 * @param s Nombre de la liga a buscar.
-	 * @return True si existe una liga con el nombre especificado (ignorando mayúsculas y minúsculas), de lo contrario, False.
+	 * @return True si existe una liga con el nombre especificado en el registro, de lo contrario, False.
 	 */
 	private boolean existeLigaEnMemoria(String s) {
-		for(int i=0;i<ligas.size();i++)	{
-			if(ligas.get(i).getNombreLiga().equalsIgnoreCase(s))
-				return true;
-		}
-		return false;
+		return registro.existeLiga(s);
 	}
 	
 	// ========== FIN MENU LIGAS - INICIO MENU COMBATES==========
@@ -572,6 +766,15 @@ public class Juego {
 	        	mostrarReglas();
 	            break;
 	        case 3:
+	        	menuTorneo();
+	            break;
+	        case 4:
+	        	menuLlave();
+	            break;
+	        case 5:
+	        	menuSimulacion();
+	            break;
+	        case 6:
 	            menuPrincipal();
 	            break;
 	    }
@@ -664,7 +867,7 @@ public class Juego {
 		
 		menu.mostrarTitulo("combatir");
 		
-		int resultado = c1.esGanador(c2, car);
+		int resultado = cacheCombates.combatir(c1, c2, car);
 
 		if (resultado > 0) {
 			menu.mostrarResultado("combatir", 1, c1.toString()); //gana c1
@@ -675,6 +878,79 @@ public class Juego {
 		}
 	}
 	
+	/**
+	 * Enfrenta a cada héroe contra cada villano, personajes y ligas, en la característica elegida,
+	 * y muestra la tabla de posiciones.
+	 *
+	 * @throws Exception Si no hay personajes ni ligas cargados.
+	 */
+	private void menuTorneo() throws Exception {
+		menu.mostrarTitulo("torneo");
+		
+		if (personajes.isEmpty() && ligas.isEmpty()) {
+			menu.throwException("listaPersonajesVacia");
+		}
+		
+		Caracteristica car = seleccionarCaracteristica();
+		List<Competidor> competidores = new ArrayList<Competidor>(personajes.size() + ligas.size());
+		competidores.addAll(personajes);
+		competidores.addAll(ligas);
+		menu.mostrarLineas(Torneo.jugar(competidores, car).getLineas());
+		
+		menu.mostrarFinal("torneo");
+	}
+	
+	/**
+	 * Juega un torneo por eliminación simple o doble entre todos los personajes y ligas, sembrados según el orden
+	 * por defecto de características. Cada ronda empieza por la característica siguiente a la de la ronda anterior,
+	 * a partir de la elegida. Se muestran todos los combates y los ganadores.
+	 *
+	 * @throws Exception Si no hay personajes ni ligas cargados.
+	 */
+	private void menuLlave() throws Exception {
+		menu.mostrarTitulo("llave");
+		
+		if (personajes.isEmpty() && ligas.isEmpty()) {
+			menu.throwException("listaPersonajesVacia");
+		}
+		
+		int seleccion = menu.mostrarMenuConInstruccionOpciones("seleccionarFormatoLlave");
+		Llave.Formato formato = (seleccion == 1) ? Llave.Formato.ELIMINACION_SIMPLE : Llave.Formato.ELIMINACION_DOBLE;
+		Caracteristica primera = seleccionarCaracteristica();
+		Caracteristica[] caracteristicas = Caracteristica.values();
+		
+		List<Competidor> competidores = new ArrayList<Competidor>(personajes.size() + ligas.size());
+		competidores.addAll(personajes);
+		competidores.addAll(ligas);
+		Llave llave = new Llave(Llave.sembrar(competidores, new Ordenamiento()), formato);
+		StringBuilder registroCombates = new StringBuilder();
+		List<Competidor> ganadores = llave.jugar(
+				ronda -> caracteristicas[(primera.ordinal() + ronda - 1) % caracteristicas.length], registroCombates);
+		
+		menu.mostrarLineas(Arrays.asList(registroCombates.toString().split("\n")));
+		menu.mostrarResultado("llave", 1, String.valueOf(llave.getCantidadRondas()));
+		menu.mostrarFinal("llave");
+		menu.listarCompetidores(ganadores);
+	}
+	
+	/**
+	 * Simula muchos combates entre dos competidores sorteando la característica inicial de cada uno, y muestra
+	 * las probabilidades estimadas junto a las exactas.
+	 *
+	 * @throws Exception Si los competidores son del mismo tipo o no pueden seleccionarse.
+	 */
+	private void menuSimulacion() throws Exception {
+		menu.mostrarTitulo("realizarCombateComp1");
+		Competidor comp1 = seleccionarCompetidor();
+		menu.mostrarTitulo("realizarCombateComp2");
+		Competidor comp2 = seleccionarCompetidor();
+		
+		menu.mostrarTitulo("simulacion");
+		SimuladorMonteCarlo simulador = new SimuladorMonteCarlo(SEMILLA_SIMULACION);
+		menu.mostrarResultado("simulacion", 1, simulador.simular(comp1, comp2, COMBATES_SIMULACION).toString());
+		menu.mostrarResultado("simulacion", 2, SimuladorMonteCarlo.calcularExacto(comp1, comp2).toString());
+	}
+	
 	/**
 	 * Muestra en la consola las reglas del juego.
 	 */
@@ -703,6 +979,15 @@ public class Juego {
                 listadoOrdenadoPorCaracteristica(criterios, ascendente);
                 break;
             case 3:
+                reporteDominancia();
+                break;
+            case 4:
+                menuRanking();
+                break;
+            case 5:
+                menuPosicionRanking();
+                break;
+            case 6:
                 menuPrincipal();
                 break;
         }
@@ -759,6 +1044,7 @@ public class Juego {
     
 	/**
 	 * Obtiene los competidores que vencen a un competidor dado en una característica específica.
+	 * La búsqueda se hace en el índice de vencedores, sin combatir contra cada personaje y liga.
 	 * 
 	 * @param retador      Competidor para el que se buscan los vencedores.
 	 * @param caracteristica Característica en la que se evalúa la competencia.
@@ -766,27 +1052,119 @@ public class Juego {
 	 * @throws Exception cuando ocurre un error durante la ejecución del programa.
 	 */
 	private List<Competidor> obtenerVencedoresContra(Competidor retador, Caracteristica caracteristica) throws Exception {
-		List<Competidor> contrincantes = new ArrayList<Competidor>();
-		List<Competidor> vencedores = new ArrayList<Competidor>();
+		return indiceVencedores.vencedoresContra(retador, caracteristica);
+	}
+	
+	/**
+	 * Muestra los primeros K personajes, ligas o ambos del listado ordenado por las características elegidas,
+	 * sin ordenar el listado completo.
+	 *
+	 * @throws Exception Si no hay competidores en el conjunto elegido.
+	 */
+	private void menuRanking() throws Exception {
+		int conjunto = menu.mostrarMenuConInstruccionOpciones("seleccionarConjuntoRanking");
+		List<Competidor> competidores = new ArrayList<Competidor>();
+		if (conjunto != 2) {
+			competidores.addAll(personajes);
+		}
+		if (conjunto != 1) {
+			competidores.addAll(ligas);
+		}
+		if (competidores.isEmpty()) {
+			menu.throwException(conjunto == 2 ? "listaLigasVacia" : "listaPersonajesVacia");
+		}
 		
-		TipoCompetidor tipoRetador = retador.getTipoCompetidor();
+		List<Caracteristica> criterios = seleccionarCriteriosOrdenamiento();
+		if (criterios == null || criterios.isEmpty()) {
+			menu.mostrarError("listadoOrdenado");
+			criterios = new Ordenamiento().getOrdenCaracteristicas();
+		}
+		boolean ascendente = seleccionarAscendente();
+		int k = menu.registrarNumero("registrarCantidadRanking");
 		
-		// Consideramos todas las ligas y personajes
-		contrincantes.addAll(ligas);		
-		contrincantes.addAll(personajes);
-		contrincantes.removeIf(c -> (tipoRetador == c.getTipoCompetidor()));
-
-		// Para cada contrincante vemos si le gana a nuestro retador
-		for (Competidor contrincante : contrincantes) {
-			// Si es del mismo tipo, no lo consideramos
-			if (contrincante.getTipoCompetidor() == retador.getTipoCompetidor()) {
-				break;
-			}
-			if (contrincante.esGanador(retador, caracteristica) > 0) {
-				vencedores.add(contrincante);
+		// Para personajes o ligas solos puede haber un índice con ese orden, que se lee sin recorrer el resto
+		IndiceOrdenado<? extends Competidor> indice = null;
+		if (conjunto == 1) {
+			indice = buscarIndiceOrdenado(indicesPersonajes, criterios);
+		} else if (conjunto == 2) {
+			indice = buscarIndiceOrdenado(indicesLigas, criterios);
+		}
+		
+		menu.mostrarTitulo("ranking");
+		if (indice != null) {
+			menu.listarCompetidores(indice.primeros(k, ascendente));
+		} else {
+			Ordenamiento ordenamiento = new Ordenamiento().setearOrdenCaracteristicas(criterios);
+			menu.listarCompetidores(Ranking.primeros(competidores, ordenamiento, ascendente, k));
+		}
+	}
+	
+	/**
+	 * Muestra en qué puesto está un personaje o liga en el orden de las características elegidas, o quién está
+	 * en un puesto dado. Si el orden está indexado se consulta el índice en O(log n); si no, se arma un índice
+	 * para la consulta.
+	 *
+	 * @throws Exception Si no hay competidores en el conjunto elegido o el puesto no existe.
+	 */
+	private void menuPosicionRanking() throws Exception {
+		int conjunto = menu.mostrarMenuConInstruccionOpciones("seleccionarConjuntoPosicion");
+		List<? extends Competidor> competidores = conjunto == 1 ? personajes : ligas;
+		if (competidores.isEmpty()) {
+			menu.throwException(conjunto == 1 ? "listaPersonajesVacia" : "listaLigasVacia");
+		}
+		
+		List<Caracteristica> criterios = seleccionarCriteriosOrdenamiento();
+		if (criterios == null || criterios.isEmpty()) {
+			menu.mostrarError("listadoOrdenado");
+			criterios = new Ordenamiento().getOrdenCaracteristicas();
+		}
+		boolean ascendente = seleccionarAscendente();
+		
+		IndiceOrdenado<? extends Competidor> indice = conjunto == 1
+				? buscarIndiceOrdenado(indicesPersonajes, criterios)
+				: buscarIndiceOrdenado(indicesLigas, criterios);
+		if (indice == null) {
+			IndiceOrdenado<Competidor> indiceConsulta = new IndiceOrdenado<Competidor>(Competidor.class,
+					new Ordenamiento().setearOrdenCaracteristicas(criterios));
+			indiceConsulta.reconstruir(competidores);
+			indice = indiceConsulta;
+		}
+		
+		int consulta = menu.mostrarMenuConInstruccionOpciones("seleccionarConsultaPosicion");
+		if (consulta == 1) {
+			Competidor competidor = competidores.get(menu.seleccionarCompetidores(competidores) - 1);
+			menu.mostrarTitulo("posicionRanking");
+			menu.mostrarResultado("posicionRanking", 1,
+					competidor + ": " + indice.posicionDe(competidor, ascendente) + " de " + indice.size());
+		} else {
+			int puesto = menu.registrarNumero("registrarPuestoRanking");
+			if (puesto > indice.size()) {
+				menu.throwException("puestoRankingInvalido");
 			}
+			menu.mostrarTitulo("posicionRanking");
+			menu.mostrarResultado("posicionRanking", 2, puesto + ": " + indice.enPosicion(puesto, ascendente));
+		}
+	}
+	
+	/**
+	 * Muestra, para cada personaje y liga, contra cuántos competidores del tipo opuesto gana, empata y pierde
+	 * en cada característica inicial, sin combatir todos contra todos.
+	 *
+	 * @throws Exception Si no hay personajes ni ligas cargados.
+	 */
+	private void reporteDominancia() throws Exception {
+		menu.mostrarTitulo("reporteDominancia");
+		
+		if (personajes.isEmpty() && ligas.isEmpty()) {
+			menu.throwException("listaPersonajesVacia");
 		}
-		return vencedores;
+		
+		List<Competidor> competidores = new ArrayList<Competidor>(personajes.size() + ligas.size());
+		competidores.addAll(personajes);
+		competidores.addAll(ligas);
+		menu.mostrarLineas(ReporteDominancia.calcular(competidores).getLineas());
+		
+		menu.mostrarFinal("reporteDominancia");
 	}
 	
 	/**
@@ -886,17 +1264,16 @@ public class Juego {
 			criterios = new LinkedList<Caracteristica>();
 			criterios.addAll(new Ordenamiento().getOrdenCaracteristicas());
 		}
-		List<Competidor> personajesOrdenados = new ArrayList<Competidor>();
-		// Instancia de Ordenamiento
-		Ordenamiento orden = new Ordenamiento();
-		orden.setearOrdenCaracteristicas(criterios);
-		
 		if (personajes == null || personajes.isEmpty()) {
 			menu.throwException("listaPersonajesVacia");
 		}
-		// Añadimos y ordenamos
-		personajesOrdenados.addAll(personajes);
-		Collections.sort(personajesOrdenados, orden);
+		// Si el orden está indexado se recorre el índice en el sentido pedido; si no, se ordena desde las columnas del almacén
+		IndiceOrdenado<Personaje> indice = buscarIndiceOrdenado(indicesPersonajes, criterios);
+		if (indice != null) {
+			menu.listarCompetidores(indice.listar(ascendente));
+			return;
+		}
+		List<Personaje> personajesOrdenados = almacenPersonajes.ordenarPorCriterios(criterios);
 		if (!ascendente) {
 			Collections.reverse(personajesOrdenados);
 		}
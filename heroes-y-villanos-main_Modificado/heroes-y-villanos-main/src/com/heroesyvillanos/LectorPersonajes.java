@@ -0,0 +1,445 @@
+package com.heroesyvillanos;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Clase LectorPersonajes que lee el formato de personajes.in recorriendo los bytes una sola vez.
+ * Cada línea tiene la forma "Heroe|Villano, NombreReal, NombrePersonaje, Velocidad, Fuerza, Resistencia, Destreza".
+ * Los números se leen directamente de los bytes y cada fila se agrega al almacén sin crear un String por campo;
+ * sólo se crean los String de los nombres, que el almacén necesita guardar.
+ * Los errores de formato se informan con IllegalArgumentException indicando línea y columna.
+ * Los archivos grandes se mapean en memoria y se leen en paralelo por bloques que terminan en fin de línea;
+ * los bloques se unen en el orden del archivo, por lo que los ids y el orden de listado no cambian.
+ *
+ * Java no permite liberar un mapeo de forma explícita: la región queda mapeada (y, en Windows, el archivo no se puede
+ * sobrescribir ni borrar) hasta que el recolector de basura libera su buffer. Para acotarlo, cada bloque se mapea de
+ * a ventanas de a lo sumo TAMANIO_VENTANA bytes y no se guarda ninguna referencia a una ventana ya procesada, así que
+ * durante la carga hay a lo sumo una ventana en uso por hilo, y al terminar ninguna.
+ */
+public class LectorPersonajes {
+	private static final int TAMANIO_BUFFER = 64 * 1024;
+	private static final byte[] HEROE = "Heroe".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] VILLANO = "Villano".getBytes(StandardCharsets.US_ASCII);
+	private static final int CAMPOS_NOMBRES = 3; // tipo, nombre real y nombre de personaje
+	// A partir de este tamaño de archivo, leer() usa la carga en paralelo
+	private static final long UMBRAL_PARALELO = 8L * 1024 * 1024;
+	private static final long TAMANIO_MAXIMO_BLOQUE = 256L * 1024 * 1024;
+	private static final int BLOQUES_POR_HILO = 4;
+	private static final long TAMANIO_VENTANA = 16L * 1024 * 1024;
+
+	private final AlmacenPersonajes destino;
+	private final int[] valores = new int[Caracteristica.values().length];
+	private boolean saltarCabecera;
+	private int linea;
+
+	/**
+	 * @param destino        Almacén al que se agregan las filas leídas.
+	 * @param saltarCabecera Indica si la primera línea es la cabecera y debe descartarse.
+	 * @param lineaInicial   Número de la primera línea que se va a leer, para los mensajes de error.
+	 */
+	LectorPersonajes(AlmacenPersonajes destino, boolean saltarCabecera, int lineaInicial) {
+		this.destino = destino;
+		this.saltarCabecera = saltarCabecera;
+		this.linea = lineaInicial - 1;
+	}
+
+	/**
+	 * Lee un archivo de personajes completo. La primera línea es la cabecera y se descarta.
+	 * Si el archivo es grande se lee en paralelo con todos los procesadores disponibles.
+	 *
+	 * @param path Ruta del archivo.
+	 * @return Un almacén con los personajes en el orden del archivo.
+	 * @throws IOException              Si el archivo no existe o no se puede leer.
+	 * @throws IllegalArgumentException Si alguna línea no respeta el formato.
+	 */
+	public static AlmacenPersonajes leer(String path) throws IOException, IllegalArgumentException {
+		try (FileInputStream in = new FileInputStream(path)) {
+			if (in.getChannel().size() >= UMBRAL_PARALELO) {
+				return leerEnParalelo(path, Runtime.getRuntime().availableProcessors());
+			}
+			return leer(in);
+		}
+	}
+	
+	/**
+	 * Lee un archivo de personajes mapeándolo en memoria y procesando bloques en paralelo.
+	 * El resultado es el mismo que el de la lectura secuencial, incluido el orden de los personajes
+	 * y la línea informada ante un error (la primera del archivo).
+	 *
+	 * @param path          Ruta del archivo.
+	 * @param cantidadHilos Cantidad de hilos a usar.
+	 * @return Un almacén con los personajes en el orden del archivo.
+	 * @throws IOException              Si el archivo no existe o no se puede leer.
+	 * @throws IllegalArgumentException Si alguna línea no respeta el formato.
+	 */
+	public static AlmacenPersonajes leerEnParalelo(String path, int cantidadHilos) throws IOException, IllegalArgumentException {
+		try (FileChannel canal = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+			long[] limites = calcularLimitesDeBloques(canal, cantidadHilos);
+			int cantidadBloques = limites.length - 1;
+			
+			List<Callable<LectorPersonajes>> tareas = new ArrayList<Callable<LectorPersonajes>>();
+			for (int i = 0; i < cantidadBloques; i++) {
+				final long inicio = limites[i];
+				final long tamanio = limites[i + 1] - limites[i];
+				final boolean esPrimero = i == 0;
+				tareas.add(() -> {
+					// Cada bloque se lee en su propio almacén, con números de línea relativos al bloque
+					LectorPersonajes lector = new LectorPersonajes(new AlmacenPersonajes(), esPrimero, 1);
+					lector.leerMapeado(canal, inicio, tamanio);
+					return lector;
+				});
+			}
+			
+			ForkJoinPool pool = new ForkJoinPool(Math.max(1, cantidadHilos));
+			try {
+				List<Future<LectorPersonajes>> resultados = pool.invokeAll(tareas);
+				
+				// Se unen los bloques en el orden del archivo
+				AlmacenPersonajes almacen = new AlmacenPersonajes();
+				int lineasAnteriores = 0;
+				for (Future<LectorPersonajes> resultado : resultados) {
+					LectorPersonajes lector;
+					try {
+						lector = resultado.get();
+					} catch (ExecutionException e) {
+						throw errorConLineaAbsoluta(e.getCause(), lineasAnteriores);
+					}
+					almacen.agregarTodos(lector.destino);
+					lineasAnteriores += lector.getLinea();
+				}
+				return almacen;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Lectura interrumpida", e);
+			} finally {
+				pool.shutdown();
+			}
+		}
+	}
+	
+	/**
+	 * Lee un bloque del archivo mapeándolo de a ventanas. Cada ventana termina en la última línea completa que contiene,
+	 * y la siguiente empieza justo después; si una sola línea no entra en la ventana, la ventana se agranda.
+	 *
+	 * @param canal   Canal del archivo.
+	 * @param inicio  Posición del bloque en el archivo.
+	 * @param tamanio Tamaño del bloque.
+	 * @throws IOException Si no se puede mapear el archivo.
+	 */
+	private void leerMapeado(FileChannel canal, long inicio, long tamanio) throws IOException {
+		long posicion = inicio;
+		long fin = inicio + tamanio;
+		long ventana = TAMANIO_VENTANA;
+		while (posicion < fin) {
+			long largo = Math.min(ventana, fin - posicion);
+			boolean esFinal = posicion + largo == fin;
+			int consumidos = procesarLineas(canal.map(FileChannel.MapMode.READ_ONLY, posicion, largo), 0, (int) largo, esFinal);
+			if (consumidos == 0 && !esFinal) {
+				ventana *= 2;
+			}
+			posicion += consumidos;
+		}
+	}
+
+	/**
+	 * Divide el archivo en bloques de tamaño parecido que empiezan siempre al inicio de una línea.
+	 *
+	 * @return Las posiciones de inicio de cada bloque, seguidas del tamaño del archivo.
+	 */
+	private static long[] calcularLimitesDeBloques(FileChannel canal, int cantidadHilos) throws IOException {
+		long tamanio = canal.size();
+		long cantidadBloques = Math.max((long) Math.max(1, cantidadHilos) * BLOQUES_POR_HILO,
+				(tamanio + TAMANIO_MAXIMO_BLOQUE - 1) / TAMANIO_MAXIMO_BLOQUE);
+		cantidadBloques = Math.max(1, Math.min(cantidadBloques, tamanio));
+		
+		List<Long> limites = new ArrayList<Long>();
+		limites.add(0L);
+		ByteBuffer lectura = ByteBuffer.allocate(4096);
+		for (long i = 1; i < cantidadBloques; i++) {
+			long nominal = i * tamanio / cantidadBloques;
+			long anterior = limites.get(limites.size() - 1);
+			if (nominal <= anterior) {
+				continue;
+			}
+			// El bloque empieza después del primer salto de línea desde la posición nominal - 1
+			long pos = nominal - 1;
+			long inicio = -1;
+			while (inicio < 0 && pos < tamanio) {
+				lectura.clear();
+				int leidos = canal.read(lectura, pos);
+				if (leidos <= 0) {
+					break;
+				}
+				for (int j = 0; j < leidos; j++) {
+					if (lectura.get(j) == '\n') {
+						inicio = pos + j + 1;
+						break;
+					}
+				}
+				pos += leidos;
+			}
+			if (inicio < 0 || inicio >= tamanio) {
+				break;
+			}
+			if (inicio > anterior) {
+				limites.add(inicio);
+			}
+		}
+		limites.add(tamanio);
+		
+		long[] resultado = new long[limites.size()];
+		for (int i = 0; i < resultado.length; i++) {
+			resultado[i] = limites.get(i);
+		}
+		return resultado;
+	}
+	
+	private static RuntimeException errorConLineaAbsoluta(Throwable causa, int lineasAnteriores) throws IOException {
+		if (causa instanceof ErrorFormato) {
+			ErrorFormato error = (ErrorFormato) causa;
+			return new ErrorFormato(error.linea + lineasAnteriores, error.columna, error.detalle);
+		}
+		if (causa instanceof IOException) {
+			throw (IOException) causa;
+		}
+		if (causa instanceof RuntimeException) {
+			return (RuntimeException) causa;
+		}
+		return new IllegalStateException(causa);
+	}
+
+	/**
+	 * Lee personajes desde un flujo de bytes en UTF-8. La primera línea es la cabecera y se descarta.
+	 *
+	 * @param in Flujo de entrada. No se cierra.
+	 * @return Un almacén con los personajes en el orden leído.
+	 * @throws IOException              Si ocurre un error de lectura.
+	 * @throws IllegalArgumentException Si alguna línea no respeta el formato.
+	 */
+	public static AlmacenPersonajes leer(InputStream in) throws IOException, IllegalArgumentException {
+		AlmacenPersonajes almacen = new AlmacenPersonajes();
+		LectorPersonajes lector = new LectorPersonajes(almacen, true, 1);
+
+		byte[] buf = new byte[TAMANIO_BUFFER];
+		int len = 0;
+		boolean fin = false;
+		while (!fin) {
+			int leidos = in.read(buf, len, buf.length - len);
+			if (leidos < 0) {
+				fin = true;
+			} else {
+				len += leidos;
+			}
+			// Se procesan las líneas completas y el resto se mueve al inicio del buffer
+			int consumidos = lector.procesarLineas(ByteBuffer.wrap(buf), 0, len, fin);
+			System.arraycopy(buf, consumidos, buf, 0, len - consumidos);
+			len -= consumidos;
+			if (len == buf.length) {
+				// Una sola línea no entra en el buffer
+				buf = Arrays.copyOf(buf, buf.length * 2);
+			}
+		}
+		return almacen;
+	}
+
+	/**
+	 * Procesa las líneas completas entre inicio y fin.
+	 *
+	 * @param buf    Bytes a procesar (se leen con posiciones absolutas).
+	 * @param inicio Posición del primer byte.
+	 * @param fin    Posición siguiente al último byte.
+	 * @param esFinal Indica si no hay más datos después de fin, en cuyo caso la última línea no necesita salto de línea.
+	 * @return La posición siguiente a la última línea procesada.
+	 */
+	int procesarLineas(ByteBuffer buf, int inicio, int fin, boolean esFinal) {
+		int pos = inicio;
+		while (pos < fin) {
+			int finLinea = pos;
+			while (finLinea < fin && buf.get(finLinea) != '\n') {
+				finLinea++;
+			}
+			if (finLinea == fin && !esFinal) {
+				return pos;
+			}
+			linea++;
+			if (saltarCabecera) {
+				saltarCabecera = false;
+			} else {
+				int finContenido = finLinea;
+				if (finContenido > pos && buf.get(finContenido - 1) == '\r') {
+					finContenido--;
+				}
+				procesarLinea(buf, pos, finContenido);
+			}
+			pos = finLinea + 1;
+		}
+		return Math.min(pos, fin);
+	}
+
+	/**
+	 * @return El número de la última línea procesada.
+	 */
+	int getLinea() {
+		return linea;
+	}
+
+	private void procesarLinea(ByteBuffer buf, int inicioLinea, int finLinea) {
+		int pos = saltarEspacios(buf, inicioLinea, finLinea);
+		if (pos == finLinea) {
+			return; // línea vacía
+		}
+
+		TipoCompetidor tipo = null;
+		String nombre = null;
+		String nombreFantasia = null;
+		int cantidadCampos = CAMPOS_NOMBRES + valores.length;
+
+		for (int campo = 0; campo < cantidadCampos; campo++) {
+			int inicioCampo = pos;
+			int finCampo = inicioCampo;
+			while (finCampo < finLinea && buf.get(finCampo) != ',') {
+				finCampo++;
+			}
+			if (finCampo == finLinea && campo < cantidadCampos - 1) {
+				throw error(finLinea, inicioLinea, "se esperaban " + cantidadCampos + " campos separados por coma");
+			}
+			if (finCampo < finLinea && campo == cantidadCampos - 1) {
+				throw error(finCampo, inicioLinea, "sobran campos al final de la línea");
+			}
+
+			int ini = saltarEspacios(buf, inicioCampo, finCampo);
+			int fin = finCampo;
+			while (fin > ini && esEspacio(buf.get(fin - 1))) {
+				fin--;
+			}
+
+			if (campo == 0) {
+				tipo = leerTipo(buf, ini, fin, inicioLinea);
+			} else if (campo < CAMPOS_NOMBRES) {
+				if (ini == fin) {
+					throw error(ini, inicioLinea, "el nombre no puede ser vacío");
+				}
+				String s = leerString(buf, ini, fin);
+				if (campo == 1) {
+					nombre = s;
+				} else {
+					nombreFantasia = s;
+				}
+			} else {
+				valores[campo - CAMPOS_NOMBRES] = leerEntero(buf, ini, fin, inicioLinea);
+			}
+			pos = finCampo + 1;
+		}
+
+		destino.agregarFila(tipo, nombre, nombreFantasia, valores);
+	}
+
+	private TipoCompetidor leerTipo(ByteBuffer buf, int ini, int fin, int inicioLinea) {
+		if (sonIguales(buf, ini, fin, HEROE)) {
+			return TipoCompetidor.HEROE;
+		}
+		if (sonIguales(buf, ini, fin, VILLANO)) {
+			return TipoCompetidor.VILLANO;
+		}
+		throw error(ini, inicioLinea, "tipo de competidor no válido, sólo se admite Heroe o Villano");
+	}
+
+	private int leerEntero(ByteBuffer buf, int ini, int fin, int inicioLinea) {
+		if (ini == fin) {
+			throw error(ini, inicioLinea, "se esperaba un número entero");
+		}
+		int pos = ini;
+		boolean negativo = false;
+		if (buf.get(pos) == '-' || buf.get(pos) == '+') {
+			negativo = buf.get(pos) == '-';
+			pos++;
+		}
+		if (pos == fin) {
+			throw error(ini, inicioLinea, "se esperaba un número entero");
+		}
+		long valor = 0;
+		for (; pos < fin; pos++) {
+			byte b = buf.get(pos);
+			if (b < '0' || b > '9') {
+				throw error(pos, inicioLinea, "se esperaba un número entero");
+			}
+			valor = valor * 10 + (b - '0');
+			if (valor > (long) Integer.MAX_VALUE + 1) {
+				throw error(ini, inicioLinea, "el número es demasiado grande");
+			}
+		}
+		valor = negativo ? -valor : valor;
+		if (valor > Integer.MAX_VALUE) {
+			throw error(ini, inicioLinea, "el número es demasiado grande");
+		}
+		return (int) valor;
+	}
+
+	private static String leerString(ByteBuffer buf, int ini, int fin) {
+		byte[] bytes = new byte[fin - ini];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = buf.get(ini + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static boolean sonIguales(ByteBuffer buf, int ini, int fin, byte[] esperado) {
+		if (fin - ini != esperado.length) {
+			return false;
+		}
+		for (int i = 0; i < esperado.length; i++) {
+			if (buf.get(ini + i) != esperado[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int saltarEspacios(ByteBuffer buf, int pos, int fin) {
+		while (pos < fin && esEspacio(buf.get(pos))) {
+			pos++;
+		}
+		return pos;
+	}
+
+	private static boolean esEspacio(byte b) {
+		return b == ' ' || b == '\t';
+	}
+
+	private IllegalArgumentException error(int pos, int inicioLinea, String detalle) {
+		// La columna se cuenta en bytes desde el inicio de la línea, empezando en 1
+		return new ErrorFormato(linea, pos - inicioLinea + 1, detalle);
+	}
+	
+	/**
+	 * Error de formato que conserva la línea y la columna, para poder corregir la línea
+	 * cuando el error ocurre en un bloque leído en paralelo.
+	 */
+	private static class ErrorFormato extends IllegalArgumentException {
+		private static final long serialVersionUID = 1L;
+		private final int linea;
+		private final int columna;
+		private final String detalle;
+		
+		ErrorFormato(int linea, int columna, String detalle) {
+			super("Línea " + linea + ", columna " + columna + ": " + detalle);
+			this.linea = linea;
+			this.columna = columna;
+			this.detalle = detalle;
+		}
+	}
+}
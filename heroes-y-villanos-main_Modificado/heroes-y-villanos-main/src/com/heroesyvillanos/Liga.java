@@ -1,14 +1,24 @@
 package com.heroesyvillanos;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 public class Liga extends Competidor {
 	private String nombreLiga;
 	private List<Competidor> competidores; // Puede contener personajes y ligas
-	private Map<Caracteristica, Integer> cache_promedio_caracteristicas;
+	// Acumulados de todos los personajes de la liga (incluidos los de sus sub-ligas)
+	private long[] sumaCaracteristicas = new long[Caracteristica.values().length];
+	private long cantidadCompetidores = 0;
+	private int[] cache_promedio_caracteristicas = new int[Caracteristica.values().length];
 	
 	// Constructor
 	public Liga(String nombre, TipoCompetidor tipo) throws Exception{
@@ -20,9 +30,6 @@ public class Liga extends Competidor {
 
 		this.nombreLiga = nombre;
 		this.competidores = new ArrayList<Competidor>();
-		this.cache_promedio_caracteristicas = new HashMap<Caracteristica, Integer>();
-		for (Caracteristica c : Caracteristica.values())    //caracteristicas en 0 
-			cache_promedio_caracteristicas.put(c, 0);
 	}
 	
 	// Constructor
@@ -31,17 +38,44 @@ public class Liga extends Competidor {
 			throw new Exception("Nombre invalido");
 		}
 		
+		// Se valida todo antes de tocar a los miembros, para no dejar ninguno marcado si la liga no se crea
+		Set<Competidor> vistos = Collections.newSetFromMap(new IdentityHashMap<Competidor, Boolean>());
 		for (Competidor c : competidores) {
 			if(c.tipoCompetidor != tipo) {
 				throw new Exception("No se puede agregar un personaje/liga a una liga con distintos tipos de competidor");
 			}
+			if(!c.puedeEntrarEnLiga() || !vistos.add(c)){
+				throw new Exception("Este personaje ya pertenece a una liga");
+			}
 		}
 		
 		this.tipoCompetidor = tipo;
 		this.nombreLiga = nombre;
-		this.competidores = competidores;
-		this.cache_promedio_caracteristicas = new HashMap<Caracteristica, Integer>();
+		this.competidores = new ArrayList<Competidor>(competidores);
 		
+		// Los acumulados se calculan una sola vez, con los acumulados de cada miembro
+		for (Competidor c : this.competidores) {
+			c.setEstaDentroDeLiga(true);
+			c.setLigaPadre(this);
+			sumarCompetidor(c);
+		}
+		this.updateCacheCaracteristicas();
+	}
+	
+	/**
+	 * Reconstruye una liga guardada en un snapshot. Los acumulados se toman tal como fueron guardados,
+	 * sin volver a recorrer a los miembros. Los miembros deben haber sido reconstruidos antes.
+	 */
+	Liga(String nombre, TipoCompetidor tipo, List<Competidor> competidores, long[] sumaCaracteristicas, long cantidadCompetidores) {
+		this.tipoCompetidor = tipo;
+		this.nombreLiga = nombre;
+		this.competidores = new ArrayList<Competidor>(competidores);
+		for (Competidor c : this.competidores) {
+			c.setEstaDentroDeLiga(true);
+			c.setLigaPadre(this);
+		}
+		this.sumaCaracteristicas = sumaCaracteristicas.clone();
+		this.cantidadCompetidores = cantidadCompetidores;
 		this.updateCacheCaracteristicas();
 	}
 	
@@ -59,62 +93,182 @@ public class Liga extends Competidor {
 		if(!c.puedeEntrarEnLiga()){
 			throw new Exception("Este personaje ya pertenece a una liga");
 		}
-		for(Competidor comp : c.getCompetidores()) {
-			if(comp.equals(this)) {
-				throw new Exception("La liga que quieres agregar ya incluye a esta liga");
-			}
+		if(c instanceof Liga && ((Liga) c).esAncestroDe(this)) {
+			throw new Exception("La liga que quieres agregar ya incluye a esta liga");
 		}
 		
 		competidores.add(c);
 		c.setEstaDentroDeLiga(true);
-		this.updateCacheCaracteristicas();
+		c.setLigaPadre(this);
+		
+		// Sólo se propaga la diferencia hacia arriba, sin recorrer el resto de la liga
+		long[] deltaSumas = new long[sumaCaracteristicas.length];
+		for (Caracteristica carac : Caracteristica.values()) {
+			deltaSumas[carac.ordinal()] = c.getSumaCaracteristicaExacta(carac);
+		}
+		this.aplicarDelta(deltaSumas, c.getCantidadCompetidoresExacta());
+	}
+	
+	/**
+	 * Indica si un competidor está en algún nivel dentro de esta liga, subiendo por sus ligas padre.
+	 * Como cada competidor pertenece a lo sumo a una liga, el costo es la profundidad del competidor
+	 * y no depende de la cantidad de miembros.
+	 *
+	 * @param c Competidor a buscar (personaje o liga).
+	 * @return true si esta liga contiene a c, directamente o a través de sus sub-ligas.
+	 */
+	public boolean esAncestroDe(Competidor c) {
+		for (Liga liga = c.getLigaPadre(); liga != null; liga = liga.getLigaPadre()) {
+			if (liga == this) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Indica si un personaje está en algún nivel dentro de esta liga.
+	 *
+	 * @param p Personaje a buscar.
+	 * @return true si el personaje pertenece a esta liga o a alguna de sus sub-ligas.
+	 */
+	public boolean contienePersonaje(Personaje p) {
+		return esAncestroDe(p);
+	}
+	
+	/**
+	 * @return La cantidad de ligas que hay por encima de esta (0 si no pertenece a ninguna).
+	 */
+	public int getProfundidad() {
+		int profundidad = 0;
+		for (Liga liga = ligaPadre; liga != null; liga = liga.getLigaPadre()) {
+			profundidad++;
+		}
+		return profundidad;
+	}
+	
+	/**
+	 * Libera a los miembros directos de la liga para que puedan entrar en otra, por ejemplo
+	 * cuando la liga se descarta al volver a cargar las ligas desde archivo.
+	 */
+	void liberarCompetidores() {
+		for (Competidor c : competidores) {
+			if (c.getLigaPadre() == this) {
+				c.setEstaDentroDeLiga(false);
+				c.setLigaPadre(null);
+			}
+		}
+	}
+	
+	/**
+	 * @return Vista de sólo lectura de los miembros directos de la liga, sin bajar a sus sub-ligas.
+	 */
+	List<Competidor> getMiembrosDirectos() {
+		return Collections.unmodifiableList(competidores);
 	}
 	
 	@Override
 	public int getPromedioCaracteristica(Caracteristica c) throws NullPointerException{
-		return cache_promedio_caracteristicas.get(c);
+		return cache_promedio_caracteristicas[c.ordinal()];
 	}
 	
-	private void updateCacheCaracteristicas() {
-		int cantComp = this.getCantidadCompetidores();
-		if(cantComp!=0) {
-			for (Caracteristica c : Caracteristica.values()) {
-				int value = this.getSumaCaracteristica(c) / cantComp;
-				cache_promedio_caracteristicas.put(c, value);
+	/**
+	 * Suma los acumulados de un miembro a los de esta liga, sin propagar a las ligas que la contienen.
+	 */
+	private void sumarCompetidor(Competidor c) {
+		for (Caracteristica carac : Caracteristica.values()) {
+			sumaCaracteristicas[carac.ordinal()] += c.getSumaCaracteristicaExacta(carac);
+		}
+		cantidadCompetidores += c.getCantidadCompetidoresExacta();
+	}
+	
+	/**
+	 * Aplica una diferencia en las sumas y en la cantidad de personajes a esta liga y a todas las ligas que la contienen.
+	 * El costo es proporcional a la profundidad de la liga, no a su tamaño.
+	 *
+	 * @param deltaSumas    Diferencia en la suma de cada característica, indexada por Caracteristica.ordinal().
+	 * @param deltaCantidad Diferencia en la cantidad de personajes.
+	 */
+	void aplicarDelta(long[] deltaSumas, long deltaCantidad) {
+		for (Liga liga = this; liga != null; liga = liga.ligaPadre) {
+			for (int i = 0; i < deltaSumas.length; i++) {
+				liga.sumaCaracteristicas[i] += deltaSumas[i];
 			}
+			liga.cantidadCompetidores += deltaCantidad;
+			liga.updateCacheCaracteristicas();
 		}
 	}
 	
+	private void updateCacheCaracteristicas() {
+		for (int i = 0; i < sumaCaracteristicas.length; i++) {
+			cache_promedio_caracteristicas[i] = cantidadCompetidores != 0 ? (int) (sumaCaracteristicas[i] / cantidadCompetidores) : 0;
+		}
+		actualizarClavesRotacion();
+	}
+	
 	@Override
 	public int getCantidadCompetidores() {
-		int sum = 0;
-		if(!this.competidores.isEmpty())  {
-			for(Competidor comp : competidores) {
-				sum += comp.getCantidadCompetidores();
-			}
-		}
-		return sum;
+		return (int) cantidadCompetidores;
 	}
 	
 	public int getSumaCaracteristica(Caracteristica c) {
-		int sum = 0;
-		if(!this.competidores.isEmpty())  {
-			for(Competidor comp : competidores) {
-				sum += comp.getSumaCaracteristica(c);
-			}
-		}
-		return sum;
+		return (int) sumaCaracteristicas[c.ordinal()];
+	}
+	
+	@Override
+	protected long getSumaCaracteristicaExacta(Caracteristica c) {
+		return sumaCaracteristicas[c.ordinal()];
+	}
+	
+	@Override
+	protected long getCantidadCompetidoresExacta() {
+		return cantidadCompetidores;
 	}
 	
 	public List<Competidor> getCompetidores() {		
 		List<Competidor> aux_competidores = new ArrayList<Competidor>();
-		for(Competidor comp : competidores) {
+		Iterator<Competidor> it = iteradorCompetidores();
+		while(it.hasNext()) {
+			aux_competidores.add(it.next());
+		}
+		return aux_competidores;
+	}
+	
+	/**
+	 * Devuelve un iterador en profundidad sobre los miembros de la liga: cada sub-liga aparece
+	 * antes que sus propios miembros. Usa una única pila de iteradores, sin copiar listas.
+	 */
+	@Override
+	public Iterator<Competidor> iteradorCompetidores() {
+		return new IteradorEnProfundidad(competidores.iterator());
+	}
+	
+	private static class IteradorEnProfundidad implements Iterator<Competidor> {
+		private final Deque<Iterator<Competidor>> pila = new ArrayDeque<Iterator<Competidor>>();
+		
+		IteradorEnProfundidad(Iterator<Competidor> raiz) {
+			pila.push(raiz);
+		}
+		
+		@Override
+		public boolean hasNext() {
+			while(!pila.isEmpty() && !pila.peek().hasNext()) {
+				pila.pop();
+			}
+			return !pila.isEmpty();
+		}
+		
+		@Override
+		public Competidor next() {
+			if(!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Competidor comp = pila.peek().next();
 			if(comp instanceof Liga) {
-				aux_competidores.add(comp);				
+				pila.push(((Liga) comp).competidores.iterator());
 			}
-			aux_competidores.addAll(comp.getCompetidores());	
+			return comp;
 		}
-		return aux_competidores;
 	}
 	
 	@Override
@@ -128,7 +282,29 @@ public class Liga extends Competidor {
 	}
 	
 	public void setCompetidores(List<Competidor> competidores) {
-		this.competidores = competidores;
+		long[] sumasAnteriores = sumaCaracteristicas.clone();
+		long cantidadAnterior = cantidadCompetidores;
+		
+		this.liberarCompetidores();
+		this.competidores = new ArrayList<Competidor>(competidores);
+		
+		sumaCaracteristicas = new long[sumasAnteriores.length];
+		cantidadCompetidores = 0;
+		for (Competidor c : this.competidores) {
+			c.setEstaDentroDeLiga(true);
+			c.setLigaPadre(this);
+			sumarCompetidor(c);
+		}
+		this.updateCacheCaracteristicas();
+		
+		// Las ligas que contienen a esta reciben la diferencia
+		if (ligaPadre != null) {
+			long[] deltaSumas = new long[sumasAnteriores.length];
+			for (int i = 0; i < deltaSumas.length; i++) {
+				deltaSumas[i] = sumaCaracteristicas[i] - sumasAnteriores[i];
+			}
+			ligaPadre.aplicarDelta(deltaSumas, cantidadCompetidores - cantidadAnterior);
+		}
 	}
 	
 	public TipoCompetidor isTipoCompetidor() {
@@ -142,10 +318,20 @@ public class Liga extends Competidor {
 
 	public String toFileLine() {
 		StringBuilder sb = new StringBuilder();
-		sb.append(this.nombreLiga);
-		for (Competidor c : competidores) {
-			sb.append(", " + c.getNombreParaArchivo());
+		try {
+			writeTo(sb);
+		} catch (IOException e) {
+			// StringBuilder no lanza IOException
+			throw new UncheckedIOException(e);
 		}
 		return sb.toString();
 	}
+	
+	@Override
+	public void writeTo(Appendable destino) throws IOException {
+		destino.append(this.nombreLiga);
+		for (Competidor c : competidores) {
+			destino.append(", ").append(c.getNombreParaArchivo());
+		}
+	}
 }
@@ -0,0 +1,264 @@
+package com.heroesyvillanos;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Clase Llave que simula un torneo por eliminación entre héroes y villanos, simple o doble.
+ *
+ * Los competidores se siembran en orden (la semilla 1 es la mejor). En cada ronda los competidores vivos se agrupan
+ * por cantidad de derrotas y, dentro de cada grupo, cada competidor del tipo con menos vivos enfrenta a uno del otro
+ * tipo: el mejor sembrado contra el peor sembrado de los que no pasan libres. Los mejores sembrados del tipo con más
+ * vivos pasan libres. Si ningún grupo tiene ambos tipos, la ronda se juega entre todos los vivos juntos.
+ * Quien pierde suma una derrota y queda eliminado al llegar al límite del formato. El torneo termina cuando sólo
+ * quedan vivos competidores de un tipo.
+ *
+ * Los combates siguen las reglas de Competidor.esGanador; en caso de empate avanza el mejor sembrado.
+ *
+ * Sólo se guardan en memoria los vivos (semilla y derrotas), por lo que cada ronda reduce lo que ocupa el torneo.
+ * Los combates de una ronda se resuelven en paralelo, y el registro se escribe después en el orden de los combates,
+ * así que es el mismo en cada ejecución.
+ */
+public class Llave {
+
+	/**
+	 * Formatos de eliminación, con la cantidad de derrotas que eliminan a un competidor.
+	 */
+	public enum Formato {
+		ELIMINACION_SIMPLE(1),
+		ELIMINACION_DOBLE(2);
+
+		private final int derrotasParaEliminar;
+
+		Formato(int derrotasParaEliminar) {
+			this.derrotasParaEliminar = derrotasParaEliminar;
+		}
+
+		public int getDerrotasParaEliminar() {
+			return derrotasParaEliminar;
+		}
+	}
+
+	// Cantidad de combates de una ronda a partir de la cual se resuelven en paralelo
+	private static final int COMBATES_EN_PARALELO = 4096;
+
+	private final Competidor[] sembrados;
+	private final Formato formato;
+	private int cantidadRondas = 0;
+	private long cantidadCombates = 0;
+
+	/**
+	 * @param sembrados Competidores de ambos tipos, del mejor sembrado al peor.
+	 * @param formato   Formato de eliminación.
+	 */
+	public Llave(List<? extends Competidor> sembrados, Formato formato) {
+		this.sembrados = sembrados.toArray(new Competidor[0]);
+		this.formato = formato;
+	}
+
+	/**
+	 * Siembra a los competidores según un ordenamiento, del mayor al menor. Los empates conservan el orden recibido.
+	 *
+	 * @param competidores Competidores a sembrar.
+	 * @param ordenamiento Criterio de siembra.
+	 * @return Una lista nueva con los competidores sembrados.
+	 */
+	public static List<Competidor> sembrar(List<? extends Competidor> competidores, Ordenamiento ordenamiento) {
+		List<Competidor> sembrados = new ArrayList<Competidor>(competidores);
+		sembrados.sort(ordenamiento.reversed());
+		return sembrados;
+	}
+
+	/**
+	 * Siembra a los competidores al azar. La misma semilla siempre da la misma siembra.
+	 *
+	 * @param competidores Competidores a sembrar.
+	 * @param semilla      Semilla del generador aleatorio.
+	 * @return Una lista nueva con los competidores sembrados.
+	 */
+	public static List<Competidor> sembrar(List<? extends Competidor> competidores, long semilla) {
+		List<Competidor> sembrados = new ArrayList<Competidor>(competidores);
+		Collections.shuffle(sembrados, new Random(semilla));
+		return sembrados;
+	}
+
+	/**
+	 * Juega el torneo completo.
+	 *
+	 * @param caracteristicaPorRonda Característica con la que se inician los combates de cada ronda, a partir de la ronda 1.
+	 * @param registro               Destino del registro de rondas y combates, o null para no registrar.
+	 * @return Los competidores que quedan vivos, todos del mismo tipo, del mejor al peor sembrado.
+	 * @throws IOException Si ocurre un error al escribir el registro.
+	 */
+	public List<Competidor> jugar(IntFunction<Caracteristica> caracteristicaPorRonda, Appendable registro) throws IOException {
+		int[] vivos = IntStream.range(0, sembrados.length).toArray();
+		byte[] derrotas = new byte[sembrados.length];
+		cantidadRondas = 0;
+		cantidadCombates = 0;
+
+		while (hayAmbosTipos(vivos, derrotas, -1)) {
+			cantidadRondas++;
+			Caracteristica caracteristica = caracteristicaPorRonda.apply(cantidadRondas);
+			int[][] combates = armarCombates(vivos, derrotas);
+			boolean[] ganaPrimero = resolver(vivos, combates, caracteristica);
+			cantidadCombates += ganaPrimero.length;
+
+			if (registro != null) {
+				registrarRonda(registro, vivos, caracteristica, combates, ganaPrimero);
+			}
+			for (int k = 0; k < ganaPrimero.length; k++) {
+				int perdedor = ganaPrimero[k] ? combates[1][k] : combates[0][k];
+				derrotas[perdedor]++;
+			}
+
+			// Los vivos siguen ordenados por semilla, así que basta con filtrar a los eliminados
+			int cantidad = 0;
+			for (int posicion = 0; posicion < vivos.length; posicion++) {
+				if (derrotas[posicion] < formato.getDerrotasParaEliminar()) {
+					vivos[cantidad] = vivos[posicion];
+					derrotas[cantidad] = derrotas[posicion];
+					cantidad++;
+				}
+			}
+			vivos = Arrays.copyOf(vivos, cantidad);
+			derrotas = Arrays.copyOf(derrotas, cantidad);
+		}
+
+		List<Competidor> ganadores = new ArrayList<Competidor>(vivos.length);
+		for (int semilla : vivos) {
+			ganadores.add(sembrados[semilla]);
+		}
+		if (registro != null) {
+			registro.append("Ganadores: ").append(String.valueOf(ganadores.size())).append('\n');
+		}
+		return ganadores;
+	}
+
+	/**
+	 * Indica si entre los vivos (o sólo entre los que tienen una cantidad de derrotas, si grupo >= 0) hay de ambos tipos.
+	 */
+	private boolean hayAmbosTipos(int[] vivos, byte[] derrotas, int grupo) {
+		boolean hayHeroes = false;
+		boolean hayVillanos = false;
+		for (int posicion = 0; posicion < vivos.length && !(hayHeroes && hayVillanos); posicion++) {
+			if (grupo < 0 || derrotas[posicion] == grupo) {
+				if (sembrados[vivos[posicion]].getTipoCompetidor() == TipoCompetidor.HEROE) {
+					hayHeroes = true;
+				} else {
+					hayVillanos = true;
+				}
+			}
+		}
+		return hayHeroes && hayVillanos;
+	}
+
+	/**
+	 * Arma los combates de una ronda. Devuelve las posiciones en vivos de ambos lados de cada combate:
+	 * combates[0][k] es el mejor sembrado del combate k y combates[1][k] su rival.
+	 */
+	private int[][] armarCombates(int[] vivos, byte[] derrotas) {
+		List<int[]> lados = new ArrayList<int[]>();
+		boolean algunGrupoJuega = false;
+		for (int grupo = 0; grupo < formato.getDerrotasParaEliminar(); grupo++) {
+			if (hayAmbosTipos(vivos, derrotas, grupo)) {
+				algunGrupoJuega = true;
+				lados.add(emparejar(vivos, derrotas, grupo));
+			}
+		}
+		if (!algunGrupoJuega) {
+			lados.add(emparejar(vivos, derrotas, -1));
+		}
+
+		int total = 0;
+		for (int[] emparejados : lados) {
+			total += emparejados.length / 2;
+		}
+		int[][] combates = new int[2][total];
+		int k = 0;
+		for (int[] emparejados : lados) {
+			for (int i = 0; i < emparejados.length; i += 2) {
+				combates[0][k] = Math.min(emparejados[i], emparejados[i + 1]);
+				combates[1][k] = Math.max(emparejados[i], emparejados[i + 1]);
+				k++;
+			}
+		}
+		return combates;
+	}
+
+	/**
+	 * Empareja un grupo: devuelve pares consecutivos de posiciones en vivos.
+	 */
+	private int[] emparejar(int[] vivos, byte[] derrotas, int grupo) {
+		int[] heroes = new int[vivos.length];
+		int[] villanos = new int[vivos.length];
+		int cantidadHeroes = 0;
+		int cantidadVillanos = 0;
+		for (int posicion = 0; posicion < vivos.length; posicion++) {
+			if (grupo < 0 || derrotas[posicion] == grupo) {
+				if (sembrados[vivos[posicion]].getTipoCompetidor() == TipoCompetidor.HEROE) {
+					heroes[cantidadHeroes++] = posicion;
+				} else {
+					villanos[cantidadVillanos++] = posicion;
+				}
+			}
+		}
+		int[] menos = cantidadHeroes <= cantidadVillanos ? heroes : villanos;
+		int[] mas = cantidadHeroes <= cantidadVillanos ? villanos : heroes;
+		int cantidadCombates = Math.min(cantidadHeroes, cantidadVillanos);
+		int cantidadMas = Math.max(cantidadHeroes, cantidadVillanos);
+
+		// Los mejores sembrados del lado con más vivos pasan libres; el resto enfrenta al otro lado, mejor contra peor
+		int[] emparejados = new int[2 * cantidadCombates];
+		for (int k = 0; k < cantidadCombates; k++) {
+			emparejados[2 * k] = menos[k];
+			emparejados[2 * k + 1] = mas[cantidadMas - 1 - k];
+		}
+		return emparejados;
+	}
+
+	private boolean[] resolver(int[] vivos, int[][] combates, Caracteristica caracteristica) {
+		boolean[] ganaPrimero = new boolean[combates[0].length];
+		IntStream indices = IntStream.range(0, ganaPrimero.length);
+		if (ganaPrimero.length >= COMBATES_EN_PARALELO) {
+			indices = indices.parallel();
+		}
+		indices.forEach(k -> {
+			Competidor primero = sembrados[vivos[combates[0][k]]];
+			Competidor segundo = sembrados[vivos[combates[1][k]]];
+			// En caso de empate avanza el mejor sembrado, que es siempre el primero
+			ganaPrimero[k] = primero.compararRotacion(segundo, caracteristica) >= 0;
+		});
+		return ganaPrimero;
+	}
+
+	private void registrarRonda(Appendable registro, int[] vivos, Caracteristica caracteristica, int[][] combates,
+			boolean[] ganaPrimero) throws IOException {
+		registro.append("Ronda ").append(String.valueOf(cantidadRondas)).append(" (").append(caracteristica.toString()).append(")\n");
+		for (int k = 0; k < ganaPrimero.length; k++) {
+			int primero = vivos[combates[0][k]];
+			int segundo = vivos[combates[1][k]];
+			int ganador = ganaPrimero[k] ? primero : segundo;
+			registro.append('#').append(String.valueOf(primero + 1)).append(' ').append(sembrados[primero].toString())
+					.append(" vs #").append(String.valueOf(segundo + 1)).append(' ').append(sembrados[segundo].toString())
+					.append(" -> gana #").append(String.valueOf(ganador + 1)).append('\n');
+		}
+	}
+
+	public int getCantidadRondas() {
+		return cantidadRondas;
+	}
+
+	public long getCantidadCombates() {
+		return cantidadCombates;
+	}
+
+	public Formato getFormato() {
+		return formato;
+	}
+}
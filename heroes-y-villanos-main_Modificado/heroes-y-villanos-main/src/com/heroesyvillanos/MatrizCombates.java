@@ -0,0 +1,192 @@
+package com.heroesyvillanos;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Clase MatrizCombates con el resultado de enfrentar a cada competidor de un grupo (filas) contra cada
+ * competidor de otro grupo del tipo opuesto (columnas) en una característica.
+ *
+ * Cada celda ocupa 2 bits (EMPATE, GANA_FILA o GANA_COLUMNA) dentro de un long[]. Cada fila empieza en un
+ * long nuevo, así que la celda (fila, columna) está en celdas[fila * palabrasPorFila + columna / 32], en los
+ * bits (columna % 32) * 2 y siguientes. Los lugares sobrantes al final de cada fila quedan en 0.
+ *
+ * El cálculo se reparte en bloques de filas entre todos los núcleos. Dentro de cada bloque se recorren las
+ * columnas por tramos, para que las claves del tramo sigan en caché mientras se calculan todas las filas del bloque.
+ */
+public class MatrizCombates {
+	public static final int EMPATE = 0;
+	public static final int GANA_FILA = 1;
+	public static final int GANA_COLUMNA = 2;
+
+	private static final int CELDAS_POR_PALABRA = Long.SIZE / 2;
+	// Máscara con el bit bajo de cada celda
+	private static final long BITS_BAJOS = 0x5555555555555555L;
+	private static final int FILAS_POR_BLOQUE = 64;
+	private static final int PALABRAS_POR_TRAMO = 64;
+
+	private final Competidor[] filas;
+	private final Competidor[] columnas;
+	private final Caracteristica caracteristica;
+	private final int palabrasPorFila;
+	private final long[] celdas;
+
+	private MatrizCombates(Competidor[] filas, Competidor[] columnas, Caracteristica caracteristica) {
+		this.filas = filas;
+		this.columnas = columnas;
+		this.caracteristica = caracteristica;
+		this.palabrasPorFila = (columnas.length + CELDAS_POR_PALABRA - 1) / CELDAS_POR_PALABRA;
+		this.celdas = new long[Math.multiplyExact(filas.length, palabrasPorFila)];
+	}
+
+	/**
+	 * Calcula la matriz completa de combates. Los tipos se validan una sola vez antes de empezar: todas las
+	 * filas deben ser del mismo tipo y todas las columnas del tipo opuesto.
+	 *
+	 * @param filas          Competidores de las filas, por ejemplo los héroes.
+	 * @param columnas       Competidores de las columnas, por ejemplo los villanos.
+	 * @param caracteristica Característica con la que se inicia cada combate.
+	 * @return La matriz con el resultado de cada combate, visto desde la fila.
+	 * @throws IllegalArgumentException Si hay competidores del mismo tipo en filas y columnas, o tipos mezclados en un grupo.
+	 */
+	public static MatrizCombates calcular(List<? extends Competidor> filas, List<? extends Competidor> columnas,
+			Caracteristica caracteristica) throws IllegalArgumentException {
+		Competidor[] f = filas.toArray(new Competidor[0]);
+		Competidor[] c = columnas.toArray(new Competidor[0]);
+		TipoCompetidor tipoFilas = validarMismoTipo(f);
+		TipoCompetidor tipoColumnas = validarMismoTipo(c);
+		if (tipoFilas != null && tipoFilas == tipoColumnas) {
+			throw new IllegalArgumentException("No se pueden enfrentar competidores del mismo tipo");
+		}
+
+		MatrizCombates matriz = new MatrizCombates(f, c, caracteristica);
+		int bloques = (f.length + FILAS_POR_BLOQUE - 1) / FILAS_POR_BLOQUE;
+		IntStream.range(0, bloques).parallel().forEach(matriz::calcularBloque);
+		return matriz;
+	}
+
+	private static TipoCompetidor validarMismoTipo(Competidor[] grupo) {
+		TipoCompetidor tipo = null;
+		for (Competidor competidor : grupo) {
+			if (tipo == null) {
+				tipo = competidor.getTipoCompetidor();
+			} else if (competidor.getTipoCompetidor() != tipo) {
+				throw new IllegalArgumentException("Todos los competidores de un lado de la matriz deben ser del mismo tipo");
+			}
+		}
+		return tipo;
+	}
+
+	private void calcularBloque(int bloque) {
+		int filaDesde = bloque * FILAS_POR_BLOQUE;
+		int filaHasta = Math.min(filas.length, filaDesde + FILAS_POR_BLOQUE);
+
+		// Si todos tienen claves válidas cada combate es una comparación de long; si no, se compara uno por uno
+		boolean usarClaves = true;
+		long[] clavesFilas = new long[filaHasta - filaDesde];
+		for (int i = filaDesde; i < filaHasta; i++) {
+			usarClaves &= filas[i].tieneClavesRotacion();
+			clavesFilas[i - filaDesde] = filas[i].getClaveRotacion(caracteristica);
+		}
+		long[] clavesColumnas = new long[CELDAS_POR_PALABRA * PALABRAS_POR_TRAMO];
+
+		for (int palabraDesde = 0; palabraDesde < palabrasPorFila; palabraDesde += PALABRAS_POR_TRAMO) {
+			int palabraHasta = Math.min(palabrasPorFila, palabraDesde + PALABRAS_POR_TRAMO);
+			int columnaDesde = palabraDesde * CELDAS_POR_PALABRA;
+			int columnaHasta = Math.min(columnas.length, palabraHasta * CELDAS_POR_PALABRA);
+			boolean usarClavesTramo = usarClaves;
+			for (int j = columnaDesde; j < columnaHasta; j++) {
+				usarClavesTramo &= columnas[j].tieneClavesRotacion();
+				clavesColumnas[j - columnaDesde] = columnas[j].getClaveRotacion(caracteristica);
+			}
+
+			for (int i = filaDesde; i < filaHasta; i++) {
+				long claveFila = clavesFilas[i - filaDesde];
+				int base = i * palabrasPorFila;
+				for (int palabra = palabraDesde; palabra < palabraHasta; palabra++) {
+					int desde = palabra * CELDAS_POR_PALABRA;
+					int hasta = Math.min(columnas.length, desde + CELDAS_POR_PALABRA);
+					long bits = 0;
+					for (int j = desde; j < hasta; j++) {
+						int resultado = usarClavesTramo
+								? Long.compareUnsigned(claveFila, clavesColumnas[j - columnaDesde])
+								: filas[i].compararRotacion(columnas[j], caracteristica);
+						long celda = resultado > 0 ? GANA_FILA : (resultado < 0 ? GANA_COLUMNA : EMPATE);
+						bits |= celda << ((j - desde) * 2);
+					}
+					celdas[base + palabra] = bits;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param fila    Índice del competidor en la lista de filas.
+	 * @param columna Índice del competidor en la lista de columnas.
+	 * @return EMPATE, GANA_FILA o GANA_COLUMNA.
+	 */
+	public int getResultado(int fila, int columna) {
+		if (fila < 0 || fila >= filas.length || columna < 0 || columna >= columnas.length) {
+			throw new IndexOutOfBoundsException("Celda inexistente: " + fila + ", " + columna);
+		}
+		long palabra = celdas[fila * palabrasPorFila + columna / CELDAS_POR_PALABRA];
+		return (int) (palabra >>> ((columna % CELDAS_POR_PALABRA) * 2)) & 3;
+	}
+
+	/**
+	 * Cuenta las celdas de una fila con un resultado, contando bits de a 32 celdas por vez.
+	 *
+	 * @param fila      Índice del competidor en la lista de filas.
+	 * @param resultado EMPATE, GANA_FILA o GANA_COLUMNA.
+	 * @return La cantidad de combates de la fila con ese resultado.
+	 */
+	public int contarEnFila(int fila, int resultado) {
+		if (fila < 0 || fila >= filas.length) {
+			throw new IndexOutOfBoundsException("Fila inexistente: " + fila);
+		}
+		int victorias = 0;
+		int derrotas = 0;
+		for (int p = fila * palabrasPorFila, fin = p + palabrasPorFila; p < fin; p++) {
+			long w = celdas[p];
+			victorias += Long.bitCount(w & ~(w >>> 1) & BITS_BAJOS);
+			derrotas += Long.bitCount((w >>> 1) & ~w & BITS_BAJOS);
+		}
+		switch (resultado) {
+		case GANA_FILA:
+			return victorias;
+		case GANA_COLUMNA:
+			return derrotas;
+		case EMPATE:
+			return columnas.length - victorias - derrotas;
+		default:
+			throw new IllegalArgumentException("Resultado inexistente: " + resultado);
+		}
+	}
+
+	/**
+	 * @param columna   Índice del competidor en la lista de columnas.
+	 * @param resultado EMPATE, GANA_FILA o GANA_COLUMNA.
+	 * @return La cantidad de combates de la columna con ese resultado.
+	 */
+	public int contarEnColumna(int columna, int resultado) {
+		int cantidad = 0;
+		for (int i = 0; i < filas.length; i++) {
+			if (getResultado(i, columna) == resultado) {
+				cantidad++;
+			}
+		}
+		return cantidad;
+	}
+
+	public int getCantidadFilas() {
+		return filas.length;
+	}
+
+	public int getCantidadColumnas() {
+		return columnas.length;
+	}
+
+	public Caracteristica getCaracteristica() {
+		return caracteristica;
+	}
+}
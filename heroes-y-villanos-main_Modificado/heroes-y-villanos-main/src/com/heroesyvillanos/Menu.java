@@ -249,6 +249,44 @@ public class Menu {
 		return nombre;
 	}
 	
+	/**
+	 * Solicita al usuario el ingreso de un número entero positivo, repitiendo la instrucción con un mensaje de error
+	 * hasta que el valor sea válido.
+	 *
+	 * @param nombreMenu El nombre del menú para cargar la instrucción y el error desde el ResourceBundle.
+	 * @return El número ingresado por el usuario, mayor a 0.
+	 */
+	public int registrarNumero(String nombreMenu) {
+		String instruccion = new String();
+		String err = new String();
+		
+		try {
+			instruccion = bundle.getString(nombreMenu + ".instruccion");
+		} catch (MissingResourceException e) {
+			instruccion = "";
+		}
+		try {
+			err = bundle.getString(nombreMenu + ".error");
+		} catch (MissingResourceException e) {
+			err = "";
+		}
+		
+		int numero = 0;
+		while (numero <= 0) {
+			mostrarTextoEnConsola(instruccion);
+			// Si el valor no es numérico, será 0 y se vuelve a pedir
+			try {
+				numero = Integer.parseInt(registrarString().trim());
+			} catch (NumberFormatException e) {
+				numero = 0;
+			}
+			if (numero <= 0) {
+				mostrarTextoEnConsola(err);
+			}
+		}
+		return numero;
+	}
+	
 	/**
 	 * Lee la entrada del usuario y devuelve el texto ingresado.
 	 *
@@ -615,6 +653,17 @@ public class Menu {
 		mostrarTextoEnConsola(s);
 	}
 	
+	/**
+	 * Muestra en la consola una lista de líneas de texto ya armadas, por ejemplo los detalles de un error de carga.
+	 *
+	 * @param lineas Las líneas a mostrar, en orden.
+	 */
+	public void mostrarLineas(List<String> lineas) {
+		for (String linea : lineas) {
+			mostrarTextoEnConsolaSinSeparacion(linea);
+		}
+	}
+	
 	/**
 	 * Lanza una excepción con un mensaje recuperado del ResourceBundle, según el nombre del menú proporcionado.
 	 *
@@ -1,14 +1,27 @@
 package com.heroesyvillanos;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 
 /**
  * Clase Ordenamiento que implementa Comparator<Competidor>.
  * Proporciona funcionalidades para definir y utilizar un orden personalizado de Caracteristica
  * para comparar diferentes objetos Competidor.
+ *
+ * Además de comparar de a pares, puede ordenar listas completas sin llamar al comparador: los valores de los criterios
+ * se leen una vez por competidor y se empaquetan en una clave long (el primer criterio en los bits más altos), y las
+ * claves se ordenan con radix sort LSD, que es estable. El resultado es el mismo que ordenar con este comparador
+ * con un ordenamiento estable.
+ *
+ * A partir de un umbral de tamaño configurable el orden se hace en paralelo: a cada clave se le agrega la posición en
+ * los bits bajos, así todas las claves son distintas y Arrays.parallelSort da el mismo orden que el radix sort estable.
+ * Si la posición no entra en la clave, se usa Arrays.parallelSort con comparador, que es estable.
  */
 public class Ordenamiento implements Comparator<Competidor> {
 	private static List<Caracteristica> ordenCaracteristicasPorDefecto = new LinkedList<Caracteristica>(
@@ -21,6 +34,15 @@ public class Ordenamiento implements Comparator<Competidor> {
 	);
 	
 	private List<Caracteristica> ordenCaracteristicas = new LinkedList<Caracteristica>();	
+	// Criterios sin repetidos, en orden: una característica repetida no cambia el resultado de comparar
+	private Caracteristica[] criterios;
+	
+	private static final int BITS_POR_PASADA = 8;
+	private static final int CUBETAS = 1 << BITS_POR_PASADA;
+	// Cantidad de competidores a partir de la cual se ordena en paralelo. Con un solo procesador el orden paralelo
+	// nunca conviene; el punto de cruce en cada máquina se puede medir con OrdenamientoBenchmark
+	public static final int UMBRAL_PARALELO_POR_DEFECTO = 1 << 17;
+	private int umbralParalelo = UMBRAL_PARALELO_POR_DEFECTO;
 	
 	/**
      * Obtiene el orden actual de características utilizado en la comparación.
@@ -28,7 +50,7 @@ public class Ordenamiento implements Comparator<Competidor> {
      * @return Lista de Caracteristica representando el orden actual.
      */
 	public List<Caracteristica> getOrdenCaracteristicas() {
-		return ordenCaracteristicas;
+		return Collections.unmodifiableList(ordenCaracteristicas);
 	}
 
 	/**
@@ -54,7 +76,7 @@ public class Ordenamiento implements Comparator<Competidor> {
 	        throw new IllegalArgumentException("No se puede comparar competidores nulos");
 	    }
 		
-		for (Caracteristica caracteristicaDeComparacion : ordenCaracteristicas) {
+		for (Caracteristica caracteristicaDeComparacion : criterios) {
 			resultado = Integer.compare(
 						c1.getPromedioCaracteristica(caracteristicaDeComparacion),
 						c2.getPromedioCaracteristica(caracteristicaDeComparacion)
@@ -73,6 +95,7 @@ public class Ordenamiento implements Comparator<Competidor> {
      */
 	public Ordenamiento setearOrdenCaracteristicasPorDefecto() {
 		ordenCaracteristicas = new LinkedList<Caracteristica>(ordenCaracteristicasPorDefecto);
+		compilarCriterios();
 		return this;
 	}
 	
@@ -89,6 +112,212 @@ public class Ordenamiento implements Comparator<Competidor> {
 	        throw new IllegalArgumentException("La lista de caractterísticas debe contener al menos un elemento.");
 	    }
 		ordenCaracteristicas = new LinkedList<Caracteristica>(caracteristicas);
+		compilarCriterios();
 		return this;
 	}
+	
+	/**
+	 * Define a partir de cuántos competidores ordenar y ordenarPosiciones trabajan en paralelo.
+	 * El resultado es el mismo con cualquier umbral; sólo cambia el tiempo.
+	 *
+	 * @param umbral Cantidad mínima de competidores para ordenar en paralelo. Integer.MAX_VALUE lo desactiva.
+	 * @return El objeto Ordenamiento con el nuevo umbral.
+	 * @throws IllegalArgumentException si el umbral es negativo.
+	 */
+	public Ordenamiento setearUmbralParalelo(int umbral) throws IllegalArgumentException {
+		if (umbral < 0) {
+			throw new IllegalArgumentException("El umbral para ordenar en paralelo no puede ser negativo.");
+		}
+		umbralParalelo = umbral;
+		return this;
+	}
+	
+	public int getUmbralParalelo() {
+		return umbralParalelo;
+	}
+	
+	private void compilarCriterios() {
+		List<Caracteristica> sinRepetidos = new ArrayList<Caracteristica>();
+		for (Caracteristica c : ordenCaracteristicas) {
+			if (!sinRepetidos.contains(c)) {
+				sinRepetidos.add(c);
+			}
+		}
+		criterios = sinRepetidos.toArray(new Caracteristica[0]);
+	}
+
+	/**
+	 * @return Una copia de los criterios sin repetidos, en orden.
+	 */
+	Caracteristica[] getCriterios() {
+		return criterios.clone();
+	}
+	
+	/**
+	 * Ordena una lista de competidores de forma ascendente y estable, con el mismo resultado que ordenarla con este
+	 * comparador, pero leyendo los promedios una sola vez por competidor y criterio.
+	 *
+	 * @param competidores Competidores a ordenar. La lista no se modifica.
+	 * @return Una lista nueva con los competidores ordenados.
+	 */
+	public <T extends Competidor> List<T> ordenar(List<T> competidores) {
+		List<T> lista = new ArrayList<T>(competidores);
+		int n = lista.size();
+		int[][] columnas = new int[Caracteristica.values().length][];
+		for (Caracteristica c : criterios) {
+			int[] columna = new int[n];
+			for (int i = 0; i < n; i++) {
+				columna[i] = lista.get(i).getPromedioCaracteristica(c);
+			}
+			columnas[c.ordinal()] = columna;
+		}
+		
+		int[] orden = ordenarPosiciones(n, c -> columnas[c.ordinal()]);
+		List<T> ordenados = new ArrayList<T>(n);
+		for (int posicion : orden) {
+			ordenados.add(lista.get(posicion));
+		}
+		return ordenados;
+	}
+	
+	/**
+	 * Ordena las posiciones 0..n-1 según los valores de cada criterio, de forma ascendente y estable.
+	 * Si los rangos de valores de todos los criterios entran juntos en un long, se ordena por claves empaquetadas;
+	 * si no, se comparan las columnas criterio por criterio.
+	 *
+	 * @param n        Cantidad de posiciones.
+	 * @param columnas Para cada característica de los criterios, sus valores por posición (puede tener más de n lugares).
+	 * @return Las posiciones en orden.
+	 */
+	int[] ordenarPosiciones(int n, Function<Caracteristica, int[]> columnas) {
+		int[][] valores = new int[criterios.length][];
+		int[] minimos = new int[criterios.length];
+		int[] bits = new int[criterios.length];
+		int bitsTotales = 0;
+		for (int k = 0; k < criterios.length; k++) {
+			valores[k] = columnas.apply(criterios[k]);
+			int minimo = Integer.MAX_VALUE;
+			int maximo = Integer.MIN_VALUE;
+			for (int i = 0; i < n; i++) {
+				minimo = Math.min(minimo, valores[k][i]);
+				maximo = Math.max(maximo, valores[k][i]);
+			}
+			minimos[k] = minimo;
+			// Cantidad de bits para representar el valor menos el mínimo
+			bits[k] = n == 0 ? 0 : Long.SIZE - Long.numberOfLeadingZeros((long) maximo - minimo);
+			bitsTotales += bits[k];
+		}
+		
+		boolean paralelo = n >= umbralParalelo;
+		// En paralelo la posición va en los bits bajos de la clave, para que no haya claves repetidas
+		int bitsPosicion = paralelo ? Integer.SIZE - Integer.numberOfLeadingZeros(Math.max(n - 1, 0)) : 0;
+		if (bitsTotales + bitsPosicion > Long.SIZE) {
+			return ordenarComparando(n, valores, paralelo);
+		}
+		
+		long[] claves = new long[n];
+		IntStream posiciones = IntStream.range(0, n);
+		if (paralelo) {
+			posiciones = posiciones.parallel();
+		}
+		posiciones.forEach(i -> {
+			long clave = 0;
+			for (int k = 0; k < criterios.length; k++) {
+				clave = (clave << bits[k]) | ((long) valores[k][i] - minimos[k]);
+			}
+			claves[i] = paralelo ? (clave << bitsPosicion) | i : clave;
+		});
+		if (!paralelo) {
+			return ordenarPorClaves(claves, bitsTotales);
+		}
+		
+		// parallelSort compara con signo: invertir el bit de signo hace que el orden sea el de las claves sin signo
+		for (int i = 0; i < n; i++) {
+			claves[i] ^= Long.MIN_VALUE;
+		}
+		Arrays.parallelSort(claves);
+		long mascaraPosicion = (1L << bitsPosicion) - 1;
+		int[] orden = new int[n];
+		for (int i = 0; i < n; i++) {
+			orden[i] = (int) (claves[i] & mascaraPosicion);
+		}
+		return orden;
+	}
+	
+	/**
+	 * Radix sort LSD sobre las claves, sin signo, de a BITS_POR_PASADA bits. Devuelve la permutación de posiciones;
+	 * como cada pasada es estable, las claves iguales conservan el orden original.
+	 */
+	static int[] ordenarPorClaves(long[] claves, int bitsUsados) {
+		int n = claves.length;
+		int[] orden = new int[n];
+		for (int i = 0; i < n; i++) {
+			orden[i] = i;
+		}
+		long[] clavesOrdenadas = claves.clone();
+		int[] ordenAux = new int[n];
+		long[] clavesAux = new long[n];
+		int[] conteo = new int[CUBETAS];
+		
+		for (int desplazamiento = 0; desplazamiento < bitsUsados; desplazamiento += BITS_POR_PASADA) {
+			Arrays.fill(conteo, 0);
+			for (int i = 0; i < n; i++) {
+				conteo[(int) (clavesOrdenadas[i] >>> desplazamiento) & (CUBETAS - 1)]++;
+			}
+			// Si todas las claves caen en la misma cubeta, la pasada no cambia nada
+			if (conteo[(int) (clavesOrdenadas[0] >>> desplazamiento) & (CUBETAS - 1)] == n) {
+				continue;
+			}
+			int acumulado = 0;
+			for (int cubeta = 0; cubeta < CUBETAS; cubeta++) {
+				int cantidad = conteo[cubeta];
+				conteo[cubeta] = acumulado;
+				acumulado += cantidad;
+			}
+			for (int i = 0; i < n; i++) {
+				int destino = conteo[(int) (clavesOrdenadas[i] >>> desplazamiento) & (CUBETAS - 1)]++;
+				clavesAux[destino] = clavesOrdenadas[i];
+				ordenAux[destino] = orden[i];
+			}
+			long[] clavesTmp = clavesOrdenadas;
+			clavesOrdenadas = clavesAux;
+			clavesAux = clavesTmp;
+			int[] ordenTmp = orden;
+			orden = ordenAux;
+			ordenAux = ordenTmp;
+		}
+		return orden;
+	}
+	
+	/**
+	 * Orden por comparación, usado cuando los valores no entran en una clave long. Los dos órdenes son estables.
+	 */
+	private int[] ordenarComparando(int n, int[][] valores, boolean paralelo) {
+		Integer[] posiciones = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			posiciones[i] = i;
+		}
+		Comparator<Integer> porColumnas = new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i, Integer j) {
+				for (int[] columna : valores) {
+					int resultado = Integer.compare(columna[i], columna[j]);
+					if (resultado != 0) {
+						return resultado;
+					}
+				}
+				return 0;
+			}
+		};
+		if (paralelo) {
+			Arrays.parallelSort(posiciones, porColumnas);
+		} else {
+			Arrays.sort(posiciones, porColumnas);
+		}
+		int[] orden = new int[n];
+		for (int i = 0; i < n; i++) {
+			orden[i] = posiciones[i];
+		}
+		return orden;
+	}
 }
@@ -1,15 +1,34 @@
 package com.heroesyvillanos;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 public class Personaje extends Competidor {
+	// Orden de las columnas de valores en personajes.in
+	private static final Caracteristica[] CARACTERISTICAS_ARCHIVO = {
+			Caracteristica.VELOCIDAD, Caracteristica.FUERZA, Caracteristica.RESISTENCIA, Caracteristica.DESTREZA };
+	
 	private String nombre;
 	private String nombreFantasia;
-	private Map<Caracteristica, Integer> caracteristicas;
+	// Valores de las caracteristicas indexados por Caracteristica.ordinal()
+	private int[] valoresCaracteristicas;
+	// Si el personaje fue agregado a un AlmacenPersonajes, sus datos se leen de la fila idAlmacen
+	private AlmacenPersonajes almacen;
+	private int idAlmacen = -1;
 	
 	public Personaje(String nombre, String nombreFantasia, Map<Caracteristica, Integer> caracteristicas, TipoCompetidor tipo) throws IllegalArgumentException{
+		this(nombre, nombreFantasia, aArrayDeValores(caracteristicas), tipo);
+	}
+	
+	public Personaje(String nombre, String nombreFantasia, int[] valoresCaracteristicas, TipoCompetidor tipo) throws IllegalArgumentException{
 		if(!esNombreValido(nombre)) {
 			throw new IllegalArgumentException("Nombre invalido");
 		}
@@ -18,43 +37,131 @@ public class Personaje extends Competidor {
 			throw new IllegalArgumentException("Nombre fantasia invalido");
 		}
 
-		if(caracteristicas.size() < Caracteristica.values().length) {
+		if(valoresCaracteristicas.length < Caracteristica.values().length) {
 			throw new IllegalArgumentException("Faltan valores para alguna/s caracteristica");
 		}
 
 		this.tipoCompetidor = tipo;
 		this.nombre = nombre;
 		this.nombreFantasia = nombreFantasia;
-		this.caracteristicas = caracteristicas;
+		this.valoresCaracteristicas = valoresCaracteristicas.clone();
+		estaDentroDeLiga = false;
+		actualizarClavesRotacion();
+	}
+	
+	/**
+	 * Crea un personaje que lee sus datos desde una fila ya cargada en un almacén.
+	 */
+	Personaje(AlmacenPersonajes almacen, int id, TipoCompetidor tipo) {
+		this.tipoCompetidor = tipo;
+		this.almacen = almacen;
+		this.idAlmacen = id;
 		estaDentroDeLiga = false;
+		actualizarClavesRotacion();
+	}
+	
+	/**
+	 * Copia los valores de un mapa de caracteristicas a un array indexado por Caracteristica.ordinal().
+	 * Si el mapa no tiene valores para todas las caracteristicas se devuelve un array mas corto,
+	 * para que el constructor lo rechace.
+	 */
+	private static int[] aArrayDeValores(Map<Caracteristica, Integer> caracteristicas) {
+		Caracteristica[] carac_values = Caracteristica.values();
+		for(Caracteristica c : carac_values) {
+			if(caracteristicas.get(c) == null) {
+				return new int[0];
+			}
+		}
+		int[] valores = new int[carac_values.length];
+		for(Caracteristica c : carac_values) {
+			valores[c.ordinal()] = caracteristicas.get(c);
+		}
+		return valores;
+	}
+	
+	/**
+	 * Pasa el personaje a leer sus datos desde una fila del almacén. Los datos propios se descartan,
+	 * ya que el almacén los copió al agregarlo.
+	 */
+	void adjuntarAlmacen(AlmacenPersonajes almacen, int id) {
+		this.almacen = almacen;
+		this.idAlmacen = id;
+		this.nombre = null;
+		this.nombreFantasia = null;
+		this.valoresCaracteristicas = null;
+	}
+	
+	/**
+	 * @return El id del personaje en su almacén, o -1 si no fue agregado a ninguno.
+	 */
+	public int getIdAlmacen() {
+		return idAlmacen;
 	}
 	
 	// Getters y Setters
 	public String getNombre() {
-		return nombre;
+		return almacen != null ? almacen.getNombre(idAlmacen) : nombre;
 	}
 
+	/**
+	 * Si el personaje está en un RegistroNombres, debe renombrarse con RegistroNombres.renombrarPersonaje
+	 * para que el registro no quede con el nombre anterior.
+	 */
 	public void setNombre(String nombre) {
-		this.nombre = nombre;
+		if(almacen != null) {
+			almacen.setNombre(idAlmacen, nombre);
+		} else {
+			this.nombre = nombre;
+		}
 	}
 	
 	// Getters y Setters -> nombreFantasia
 	public String getNombreFantasia() {
-		return nombreFantasia;
+		return almacen != null ? almacen.getNombreFantasia(idAlmacen) : nombreFantasia;
 	}
 
+	/**
+	 * Si el personaje está en un RegistroNombres, debe renombrarse con RegistroNombres.renombrarPersonaje
+	 * para que el registro no quede con el nombre anterior.
+	 */
 	public void setNombreFantasia(String nombreFantasia) {
-		this.nombreFantasia = nombreFantasia;
+		if(almacen != null) {
+			almacen.setNombreFantasia(idAlmacen, nombreFantasia);
+		} else {
+			this.nombreFantasia = nombreFantasia;
+		}
+	}
+	
+	private int getValor(Caracteristica c) {
+		return almacen != null ? almacen.getValor(idAlmacen, c) : valoresCaracteristicas[c.ordinal()];
+	}
+	
+	private void setValor(Caracteristica c, int valor) {
+		int anterior = getValor(c);
+		if(almacen != null) {
+			almacen.setValor(idAlmacen, c, valor);
+		} else {
+			valoresCaracteristicas[c.ordinal()] = valor;
+		}
+		if(anterior != valor) {
+			actualizarClavesRotacion();
+		}
+		// La liga que lo contiene (y sus ancestros) actualizan sus acumulados con la diferencia
+		if(ligaPadre != null && anterior != valor) {
+			long[] deltaSumas = new long[Caracteristica.values().length];
+			deltaSumas[c.ordinal()] = (long) valor - anterior;
+			ligaPadre.aplicarDelta(deltaSumas, 0);
+		}
 	}
 	
 	@Override
 	public int getPromedioCaracteristica(Caracteristica c) {
-		return caracteristicas.get(c);
+		return getValor(c);
 	}
 	
 	@Override
 	public int getSumaCaracteristica(Caracteristica c) {
-		return caracteristicas.get(c);
+		return getValor(c);
 	}
 	
 	@Override
@@ -69,17 +176,49 @@ public class Personaje extends Competidor {
 		return competidores; 
 	}	
 	
+	@Override
+	public Iterator<Competidor> iteradorCompetidores() {
+		// Un personaje se recorre a sí mismo, sin crear una lista
+		return new Iterator<Competidor>() {
+			private boolean visto = false;
+			
+			@Override
+			public boolean hasNext() {
+				return !visto;
+			}
+			
+			@Override
+			public Competidor next() {
+				if(visto) {
+					throw new NoSuchElementException();
+				}
+				visto = true;
+				return Personaje.this;
+			}
+		};
+	}
+	
 	@Override
 	public String toString() {
-		return "\"" + nombre + ", " + nombreFantasia + "\"";
+		return "\"" + getNombre() + ", " + getNombreFantasia() + "\"";
 	}
 
+	/**
+	 * Devuelve una vista de Map sobre los valores del personaje. No copia los datos:
+	 * las lecturas y los put se hacen directamente sobre los valores del personaje.
+	 */
 	public Map<Caracteristica, Integer> getCaracteristicas() {
-		return caracteristicas;
+		return new VistaCaracteristicas();
 	}
 
-	public void setCaracteristicas(Map<Caracteristica, Integer> caracteristicas) {
-		this.caracteristicas = caracteristicas;
+	public void setCaracteristicas(Map<Caracteristica, Integer> caracteristicas) throws IllegalArgumentException {
+		int[] valores = aArrayDeValores(caracteristicas);
+		if(valores.length < Caracteristica.values().length) {
+			throw new IllegalArgumentException("Faltan valores para alguna/s caracteristica");
+		}
+		for(Caracteristica c : Caracteristica.values()) {
+			setValor(c, valores[c.ordinal()]);
+		}
 	}
 
 	public TipoCompetidor isTipoCompetidor() {
@@ -88,24 +227,110 @@ public class Personaje extends Competidor {
 
 	public void setTipoCompetidor(TipoCompetidor tipoCompetidor) {
 		this.tipoCompetidor = tipoCompetidor;
+		if(almacen != null) {
+			almacen.setTipo(idAlmacen, tipoCompetidor);
+		}
 	}
 		
 	@Override
 	protected String getNombreParaArchivo() {
 		// TODO Auto-generated method stub
-		return this.nombreFantasia;
+		return getNombreFantasia();
 	}
 	
 	public String toFileLine() {
-		String str = "";
-		
-		if(this.tipoCompetidor == TipoCompetidor.HEROE) {
-			str = "Heroe";
-		}else {
-			str = "Villano";
+		StringBuilder sb = new StringBuilder();
+		try {
+			writeTo(sb);
+		} catch (IOException e) {
+			// StringBuilder no lanza IOException
+			throw new UncheckedIOException(e);
 		}
+		return sb.toString();
+	}
+	
+	@Override
+	public void writeTo(Appendable destino) throws IOException {
+		destino.append(this.tipoCompetidor == TipoCompetidor.HEROE ? "Heroe" : "Villano");
+		destino.append(", ").append(getNombre());
+		destino.append(", ").append(getNombreFantasia());
 		//Velocidad, Fuerza, Resistencia, Destreza
-		return str + ", " + this.nombre +", "+ this.nombreFantasia+", "+this.caracteristicas.get(Caracteristica.VELOCIDAD)+", "+this.caracteristicas.get(Caracteristica.FUERZA)+", "+this.caracteristicas.get(Caracteristica.RESISTENCIA)+", "+this.caracteristicas.get(Caracteristica.DESTREZA);
+		for(Caracteristica c : CARACTERISTICAS_ARCHIVO) {
+			destino.append(", ");
+			escribirEntero(destino, getValor(c));
+		}
+	}
+	
+	/**
+	 * Vista de Map sobre los valores del personaje, para mantener compatible getCaracteristicas().
+	 * Siempre contiene todas las caracteristicas, por lo que no admite remove.
+	 */
+	private class VistaCaracteristicas extends AbstractMap<Caracteristica, Integer> {
+		
+		@Override
+		public int size() {
+			return Caracteristica.values().length;
+		}
+		
+		@Override
+		public boolean containsKey(Object key) {
+			return key instanceof Caracteristica;
+		}
+		
+		@Override
+		public Integer get(Object key) {
+			if(!(key instanceof Caracteristica)) {
+				return null;
+			}
+			return getValor((Caracteristica) key);
+		}
+		
+		@Override
+		public Integer put(Caracteristica key, Integer value) {
+			int anterior = getValor(key);
+			setValor(key, value);
+			return anterior;
+		}
+		
+		@Override
+		public Set<Map.Entry<Caracteristica, Integer>> entrySet() {
+			return new AbstractSet<Map.Entry<Caracteristica, Integer>>() {
+				@Override
+				public int size() {
+					return Caracteristica.values().length;
+				}
+				
+				@Override
+				public Iterator<Map.Entry<Caracteristica, Integer>> iterator() {
+					return new Iterator<Map.Entry<Caracteristica, Integer>>() {
+						private final Caracteristica[] carac_values = Caracteristica.values();
+						private int pos = 0;
+						
+						@Override
+						public boolean hasNext() {
+							return pos < carac_values.length;
+						}
+						
+						@Override
+						public Map.Entry<Caracteristica, Integer> next() {
+							if(!hasNext()) {
+								throw new NoSuchElementException();
+							}
+							final Caracteristica c = carac_values[pos++];
+							return new AbstractMap.SimpleEntry<Caracteristica, Integer>(c, getValor(c)) {
+								private static final long serialVersionUID = 1L;
+								
+								@Override
+								public Integer setValue(Integer value) {
+									super.setValue(value);
+									return put(c, value);
+								}
+							};
+						}
+					};
+				}
+			};
+		}
 	}
 }
 
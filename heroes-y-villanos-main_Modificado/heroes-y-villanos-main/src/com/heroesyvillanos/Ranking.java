@@ -0,0 +1,123 @@
+package com.heroesyvillanos;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Clase Ranking que obtiene los primeros k competidores de un listado ordenado sin ordenar el listado completo.
+ *
+ * Se recorre la lista una vez manteniendo en un heap a los k mejores vistos hasta el momento, con el peor de ellos
+ * en la cima: cada competidor nuevo sólo entra si supera a ese peor. El costo es O(n log k) y la memoria extra O(k).
+ * Para listas muy grandes la lista se divide en tramos que se procesan en paralelo, cada uno con su propio heap,
+ * y después se eligen los k mejores entre los candidatos de todos los tramos.
+ *
+ * Los empates se resuelven por la posición en la lista, de modo que el resultado coincide con los primeros k de
+ * ordenar la lista con un ordenamiento estable (e invertirla, si el orden es descendente).
+ */
+public class Ranking {
+	// Tamaño de la lista a partir del cual se divide en tramos paralelos
+	private static final int UMBRAL_PARALELO = 1 << 16;
+	private static final int TRAMOS_POR_NUCLEO = 4;
+
+	private Ranking() {
+	}
+
+	/**
+	 * Obtiene los primeros k competidores del listado ordenado.
+	 *
+	 * @param competidores Competidores a ordenar. La lista no se modifica.
+	 * @param orden        Criterio de orden ascendente, por ejemplo un Ordenamiento.
+	 * @param ascendente   true para los k menores en orden ascendente, false para los k mayores en orden descendente.
+	 * @param k            Cantidad de competidores a obtener.
+	 * @return Una lista nueva con a lo sumo k competidores, en el orden del listado.
+	 * @throws IllegalArgumentException Si k es negativo.
+	 */
+	public static <T extends Competidor> List<T> primeros(List<T> competidores, Comparator<? super T> orden,
+			boolean ascendente, int k) throws IllegalArgumentException {
+		if (k < 0) {
+			throw new IllegalArgumentException("La cantidad de competidores no puede ser negativa");
+		}
+		int n = competidores.size();
+		k = Math.min(k, n);
+		if (k == 0) {
+			return new ArrayList<T>();
+		}
+
+		// Orden completo de las posiciones: el criterio y, ante empates, la posición en la lista.
+		// En orden descendente se invierten ambos, como al invertir un ordenamiento estable
+		Comparator<Integer> ascendentePorPosicion = (i, j) -> {
+			int resultado = orden.compare(competidores.get(i), competidores.get(j));
+			return resultado != 0 ? resultado : Integer.compare(i, j);
+		};
+		Comparator<Integer> ordenListado = ascendente ? ascendentePorPosicion : ascendentePorPosicion.reversed();
+
+		List<Integer> candidatos;
+		if (n < UMBRAL_PARALELO) {
+			candidatos = mejoresDelTramo(0, n, k, ordenListado);
+		} else {
+			int tramos = Runtime.getRuntime().availableProcessors() * TRAMOS_POR_NUCLEO;
+			int largoTramo = (n + tramos - 1) / tramos;
+			final int kFinal = k;
+			candidatos = IntStream.range(0, tramos).parallel()
+					.mapToObj(t -> mejoresDelTramo(t * largoTramo, Math.min(n, (t + 1) * largoTramo), kFinal, ordenListado))
+					.flatMap(List::stream)
+					.collect(Collectors.toList());
+			candidatos = mejoresDeLista(candidatos, k, ordenListado);
+		}
+
+		List<T> resultado = new ArrayList<T>(candidatos.size());
+		for (Integer i : candidatos) {
+			resultado.add(competidores.get(i));
+		}
+		return resultado;
+	}
+
+	/**
+	 * Los k mejores de las posiciones [desde, hasta), ya ordenados.
+	 */
+	private static List<Integer> mejoresDelTramo(int desde, int hasta, int k, Comparator<Integer> orden) {
+		// El heap tiene en la cima al peor de los elegidos
+		PriorityQueue<Integer> heap = new PriorityQueue<Integer>(k + 1, orden.reversed());
+		for (int i = desde; i < hasta; i++) {
+			ofrecer(heap, i, k, orden);
+		}
+		return vaciarOrdenado(heap);
+	}
+
+	private static List<Integer> mejoresDeLista(List<Integer> posiciones, int k, Comparator<Integer> orden) {
+		PriorityQueue<Integer> heap = new PriorityQueue<Integer>(k + 1, orden.reversed());
+		for (Integer i : posiciones) {
+			ofrecer(heap, i, k, orden);
+		}
+		return vaciarOrdenado(heap);
+	}
+
+	/**
+	 * Agrega una posición al heap si todavía hay lugar o si es mejor que la peor elegida, que entonces sale.
+	 */
+	private static void ofrecer(PriorityQueue<Integer> heap, Integer i, int k, Comparator<Integer> orden) {
+		if (heap.size() < k) {
+			heap.add(i);
+		} else if (orden.compare(i, heap.peek()) < 0) {
+			heap.poll();
+			heap.add(i);
+		}
+	}
+
+	private static List<Integer> vaciarOrdenado(PriorityQueue<Integer> heap) {
+		// Se sacan del peor al mejor, así que se llenan desde el final
+		Integer[] ordenados = new Integer[heap.size()];
+		for (int i = ordenados.length - 1; i >= 0; i--) {
+			ordenados[i] = heap.poll();
+		}
+		List<Integer> lista = new ArrayList<Integer>(ordenados.length);
+		for (Integer i : ordenados) {
+			lista.add(i);
+		}
+		return lista;
+	}
+}
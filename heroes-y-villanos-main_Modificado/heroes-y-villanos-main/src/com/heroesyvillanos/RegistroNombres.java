@@ -0,0 +1,135 @@
+package com.heroesyvillanos;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Clase RegistroNombres que indexa personajes y ligas por nombre usando tablas hash.
+ * Los nombres se normalizan (sin espacios al inicio o al final y en minúsculas) antes de
+ * guardarlos o buscarlos, por lo que las búsquedas no distinguen mayúsculas de minúsculas.
+ */
+public class RegistroNombres {
+	private Map<String, Personaje> personajesPorNombreFantasia = new HashMap<String, Personaje>();
+	private Map<String, List<Personaje>> personajesPorNombreReal = new HashMap<String, List<Personaje>>();
+	private Map<String, Liga> ligasPorNombre = new HashMap<String, Liga>();
+
+	/**
+	 * Normaliza un nombre para usarlo como clave en los índices.
+	 *
+	 * @param nombre Nombre a normalizar.
+	 * @return El nombre sin espacios al inicio o al final y en minúsculas.
+	 */
+	public static String normalizar(String nombre) {
+		return nombre.trim().toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Registra un personaje por su nombre de fantasía y su nombre real.
+	 * Si ya había un personaje con el mismo nombre de fantasía, se conserva el primero.
+	 *
+	 * @param p Personaje a registrar.
+	 */
+	public void registrarPersonaje(Personaje p) {
+		personajesPorNombreFantasia.putIfAbsent(normalizar(p.getNombreFantasia()), p);
+		personajesPorNombreReal.computeIfAbsent(normalizar(p.getNombre()), k -> new ArrayList<Personaje>()).add(p);
+	}
+
+	/**
+	 * Cambia los nombres de un personaje registrado y actualiza los índices, que si no quedarían con los nombres viejos.
+	 * Los personajes registrados deben renombrarse por aquí y no con los setters de Personaje.
+	 *
+	 * @param p              Personaje a renombrar.
+	 * @param nombre         Nuevo nombre real.
+	 * @param nombreFantasia Nuevo nombre de fantasía.
+	 * @throws IllegalArgumentException Si el nombre de fantasía ya es de otro personaje registrado.
+	 */
+	public void renombrarPersonaje(Personaje p, String nombre, String nombreFantasia) throws IllegalArgumentException {
+		Personaje existente = buscarPersonaje(nombreFantasia);
+		if (existente != null && existente != p) {
+			throw new IllegalArgumentException("Ya existe un personaje con el nombre de fantasía " + nombreFantasia);
+		}
+		personajesPorNombreFantasia.remove(normalizar(p.getNombreFantasia()), p);
+		String claveReal = normalizar(p.getNombre());
+		List<Personaje> mismoNombreReal = personajesPorNombreReal.get(claveReal);
+		if (mismoNombreReal != null) {
+			mismoNombreReal.removeIf(otro -> otro == p);
+			if (mismoNombreReal.isEmpty()) {
+				personajesPorNombreReal.remove(claveReal);
+			}
+		}
+		p.setNombre(nombre);
+		p.setNombreFantasia(nombreFantasia);
+		registrarPersonaje(p);
+	}
+
+	/**
+	 * Registra una liga por su nombre. Si ya había una liga con el mismo nombre, se conserva la primera.
+	 *
+	 * @param liga Liga a registrar.
+	 */
+	public void registrarLiga(Liga liga) {
+		ligasPorNombre.putIfAbsent(normalizar(liga.getNombreLiga()), liga);
+	}
+
+	/**
+	 * Reemplaza todos los personajes registrados por los de la lista dada.
+	 *
+	 * @param personajes Personajes a registrar.
+	 */
+	public void reemplazarPersonajes(List<Personaje> personajes) {
+		personajesPorNombreFantasia = new HashMap<String, Personaje>();
+		personajesPorNombreReal = new HashMap<String, List<Personaje>>();
+		for (Personaje p : personajes) {
+			registrarPersonaje(p);
+		}
+	}
+
+	/**
+	 * Reemplaza todas las ligas registradas por las de la lista dada.
+	 *
+	 * @param ligas Ligas a registrar.
+	 */
+	public void reemplazarLigas(List<Liga> ligas) {
+		ligasPorNombre = new HashMap<String, Liga>();
+		for (Liga liga : ligas) {
+			registrarLiga(liga);
+		}
+	}
+
+	/**
+	 * @param nombreFantasia Nombre de fantasía a buscar.
+	 * @return El personaje con ese nombre de fantasía, o null si no existe.
+	 */
+	public Personaje buscarPersonaje(String nombreFantasia) {
+		return personajesPorNombreFantasia.get(normalizar(nombreFantasia));
+	}
+
+	/**
+	 * @param nombreReal Nombre real a buscar.
+	 * @return Los personajes con ese nombre real (puede haber más de uno), o una lista vacía.
+	 */
+	public List<Personaje> buscarPorNombreReal(String nombreReal) {
+		List<Personaje> encontrados = personajesPorNombreReal.get(normalizar(nombreReal));
+		return encontrados == null ? Collections.<Personaje>emptyList() : Collections.unmodifiableList(encontrados);
+	}
+
+	/**
+	 * @param nombreLiga Nombre de la liga a buscar.
+	 * @return La liga con ese nombre, o null si no existe.
+	 */
+	public Liga buscarLiga(String nombreLiga) {
+		return ligasPorNombre.get(normalizar(nombreLiga));
+	}
+
+	public boolean existePersonaje(String nombreFantasia) {
+		return buscarPersonaje(nombreFantasia) != null;
+	}
+
+	public boolean existeLiga(String nombreLiga) {
+		return buscarLiga(nombreLiga) != null;
+	}
+}
@@ -0,0 +1,187 @@
+package com.heroesyvillanos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Clase ReporteDominancia con, para cada competidor y cada característica inicial, la cantidad de competidores
+ * del tipo opuesto a los que vence, con los que empata y contra los que pierde.
+ *
+ * En lugar de combatir todos contra todos, por cada característica se ordenan una vez las claves de rotación de
+ * héroes y de villanos. Como comparar claves equivale a combatir, a cada competidor le gana todo el que tenga una
+ * clave mayor y pierde todo el que tenga una menor: con dos búsquedas binarias en las claves del otro tipo se obtienen
+ * las tres cantidades. El costo total es O(n log n) por característica.
+ *
+ * Los competidores sin claves válidas (promedios fuera del rango de la clave) se combaten uno por uno contra el otro tipo.
+ */
+public class ReporteDominancia {
+	private static final Caracteristica[] CARACTERISTICAS = Caracteristica.values();
+
+	private final List<Competidor> competidores;
+	// [caracteristica.ordinal()][índice del competidor]
+	private final int[][] victorias;
+	private final int[][] empates;
+	private final int[][] derrotas;
+
+	private ReporteDominancia(List<Competidor> competidores) {
+		this.competidores = competidores;
+		this.victorias = new int[CARACTERISTICAS.length][competidores.size()];
+		this.empates = new int[CARACTERISTICAS.length][competidores.size()];
+		this.derrotas = new int[CARACTERISTICAS.length][competidores.size()];
+	}
+
+	/**
+	 * Calcula el reporte para un grupo de competidores. Cada competidor se enfrenta sólo con los del tipo opuesto del grupo.
+	 *
+	 * @param competidores Personajes y ligas a incluir, de ambos tipos.
+	 * @return El reporte, con los competidores en el mismo orden que la lista recibida.
+	 */
+	public static ReporteDominancia calcular(List<? extends Competidor> competidores) {
+		ReporteDominancia reporte = new ReporteDominancia(new ArrayList<Competidor>(competidores));
+		for (Caracteristica c : CARACTERISTICAS) {
+			reporte.calcularCaracteristica(c);
+		}
+		return reporte;
+	}
+
+	private void calcularCaracteristica(Caracteristica caracteristica) {
+		int n = competidores.size();
+		int[] ganados = victorias[caracteristica.ordinal()];
+		int[] empatados = empates[caracteristica.ordinal()];
+		int[] perdidos = derrotas[caracteristica.ordinal()];
+
+		// Claves ordenadas de cada tipo. Se invierte el bit de signo para que el orden de Arrays.sort sea el sin signo
+		long[][] clavesPorTipo = new long[TipoCompetidor.values().length][n];
+		int[] cantidadPorTipo = new int[TipoCompetidor.values().length];
+		List<Integer> sinClave = new ArrayList<Integer>();
+		for (int i = 0; i < n; i++) {
+			Competidor c = competidores.get(i);
+			if (c.tieneClavesRotacion()) {
+				int tipo = c.getTipoCompetidor().ordinal();
+				clavesPorTipo[tipo][cantidadPorTipo[tipo]++] = c.getClaveRotacion(caracteristica) ^ Long.MIN_VALUE;
+			} else {
+				sinClave.add(i);
+			}
+		}
+		for (int tipo = 0; tipo < clavesPorTipo.length; tipo++) {
+			clavesPorTipo[tipo] = Arrays.copyOf(clavesPorTipo[tipo], cantidadPorTipo[tipo]);
+			Arrays.sort(clavesPorTipo[tipo]);
+		}
+
+		for (int i = 0; i < n; i++) {
+			Competidor c = competidores.get(i);
+			if (!c.tieneClavesRotacion()) {
+				continue;
+			}
+			long[] rivales = clavesPorTipo[opuesto(c.getTipoCompetidor()).ordinal()];
+			long clave = c.getClaveRotacion(caracteristica) ^ Long.MIN_VALUE;
+			int menores = primeraPosicionNoMenor(rivales, clave);
+			int noMayores = primeraPosicionMayor(rivales, clave);
+			ganados[i] = menores;
+			empatados[i] = noMayores - menores;
+			perdidos[i] = rivales.length - noMayores;
+		}
+
+		// Los competidores sin claves combaten contra todos los del otro tipo, y el resultado se suma a ambos lados
+		for (int k = 0; k < sinClave.size(); k++) {
+			int i = sinClave.get(k);
+			Competidor c = competidores.get(i);
+			for (int j = 0; j < n; j++) {
+				Competidor rival = competidores.get(j);
+				if (rival.getTipoCompetidor() == c.getTipoCompetidor()) {
+					continue;
+				}
+				// Un par entre dos competidores sin claves se combate una sola vez, desde el de menor índice
+				if (!rival.tieneClavesRotacion() && j < i) {
+					continue;
+				}
+				int resultado = c.compararRotacion(rival, caracteristica);
+				sumarResultado(i, resultado, ganados, empatados, perdidos);
+				sumarResultado(j, -resultado, ganados, empatados, perdidos);
+			}
+		}
+	}
+
+	private static void sumarResultado(int i, int resultado, int[] ganados, int[] empatados, int[] perdidos) {
+		if (resultado > 0) {
+			ganados[i]++;
+		} else if (resultado < 0) {
+			perdidos[i]++;
+		} else {
+			empatados[i]++;
+		}
+	}
+
+	private static TipoCompetidor opuesto(TipoCompetidor tipo) {
+		return tipo == TipoCompetidor.HEROE ? TipoCompetidor.VILLANO : TipoCompetidor.HEROE;
+	}
+
+	// Cantidad de claves menores a la dada
+	private static int primeraPosicionNoMenor(long[] claves, long clave) {
+		int desde = 0;
+		int hasta = claves.length;
+		while (desde < hasta) {
+			int medio = (desde + hasta) >>> 1;
+			if (claves[medio] < clave) {
+				desde = medio + 1;
+			} else {
+				hasta = medio;
+			}
+		}
+		return desde;
+	}
+
+	// Cantidad de claves menores o iguales a la dada
+	private static int primeraPosicionMayor(long[] claves, long clave) {
+		int desde = 0;
+		int hasta = claves.length;
+		while (desde < hasta) {
+			int medio = (desde + hasta) >>> 1;
+			if (claves[medio] <= clave) {
+				desde = medio + 1;
+			} else {
+				hasta = medio;
+			}
+		}
+		return desde;
+	}
+
+	/**
+	 * @return Los competidores del reporte, en el orden en que se recibieron.
+	 */
+	public List<Competidor> getCompetidores() {
+		return competidores;
+	}
+
+	public int getVictorias(int indice, Caracteristica c) {
+		return victorias[c.ordinal()][indice];
+	}
+
+	public int getEmpates(int indice, Caracteristica c) {
+		return empates[c.ordinal()][indice];
+	}
+
+	public int getDerrotas(int indice, Caracteristica c) {
+		return derrotas[c.ordinal()][indice];
+	}
+
+	/**
+	 * Arma una línea de texto por competidor, con sus victorias, empates y derrotas en cada característica.
+	 *
+	 * @return Las líneas del reporte, en el orden de los competidores.
+	 */
+	public List<String> getLineas() {
+		List<String> lineas = new ArrayList<String>(competidores.size());
+		for (int i = 0; i < competidores.size(); i++) {
+			StringBuilder sb = new StringBuilder();
+			sb.append(i + 1).append("- ").append(competidores.get(i));
+			for (Caracteristica c : CARACTERISTICAS) {
+				sb.append(c == CARACTERISTICAS[0] ? ": " : ", ").append(c).append(' ');
+				sb.append(getVictorias(i, c)).append('/').append(getEmpates(i, c)).append('/').append(getDerrotas(i, c));
+			}
+			lineas.add(sb.toString());
+		}
+		return lineas;
+	}
+}
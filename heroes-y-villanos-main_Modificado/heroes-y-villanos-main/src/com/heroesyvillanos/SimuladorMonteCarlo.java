@@ -0,0 +1,289 @@
+package com.heroesyvillanos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Clase SimuladorMonteCarlo que estima las probabilidades de victoria, empate y derrota cuando la característica
+ * inicial de cada combate se sortea al azar.
+ *
+ * Los combates se reparten en bloques de tamaño fijo. Antes de empezar, el generador raíz se divide una vez por bloque
+ * (SplittableRandom.split), en orden, así que cada bloque tiene su propia secuencia sin compartir estado con otros
+ * hilos, y el resultado depende sólo de la semilla y la cantidad de combates, no de cuántos hilos lo ejecuten.
+ *
+ * Como entre dos competidores sólo hay cuatro combates posibles (uno por característica inicial), también hay un modo
+ * exacto que calcula esos resultados en lugar de sortear.
+ */
+public class SimuladorMonteCarlo {
+	// Valor de z para intervalos de confianza del 95%
+	private static final double Z_95 = 1.959963984540054;
+	private static final int COMBATES_POR_BLOQUE = 1 << 16;
+	// Cantidad máxima de combates por simulación: la cantidad de bloques tiene que entrar en un int
+	public static final long MAX_COMBATES = (long) Integer.MAX_VALUE * COMBATES_POR_BLOQUE;
+	private static final Caracteristica[] CARACTERISTICAS = Caracteristica.values();
+
+	private final long semilla;
+
+	/**
+	 * @param semilla Semilla del generador aleatorio. La misma semilla da siempre los mismos resultados.
+	 */
+	public SimuladorMonteCarlo(long semilla) {
+		this.semilla = semilla;
+	}
+
+	/**
+	 * Simula combates entre dos competidores, sorteando la característica inicial de cada uno.
+	 *
+	 * @param c1       Competidor desde cuyo punto de vista se cuentan los resultados.
+	 * @param c2       Rival, del tipo opuesto.
+	 * @param combates Cantidad de combates a simular.
+	 * @return Las probabilidades estimadas para c1.
+	 * @throws IllegalArgumentException Si los competidores son del mismo tipo o la cantidad de combates no es positiva o supera MAX_COMBATES.
+	 */
+	public Estimacion simular(Competidor c1, Competidor c2, long combates) throws IllegalArgumentException {
+		validarRivales(c1, c2);
+		int bloques = contarBloques(combates);
+		SplittableRandom[] generadores = dividir(bloques);
+
+		long[] cuentas = IntStream.range(0, bloques).parallel().mapToObj(bloque -> {
+			long[] cuentasBloque = new long[3];
+			SplittableRandom random = generadores[bloque];
+			long desde = (long) bloque * COMBATES_POR_BLOQUE;
+			long hasta = Math.min(combates, desde + COMBATES_POR_BLOQUE);
+			for (long k = desde; k < hasta; k++) {
+				Caracteristica c = CARACTERISTICAS[random.nextInt(CARACTERISTICAS.length)];
+				cuentasBloque[indiceResultado(c1.compararRotacion(c2, c))]++;
+			}
+			return cuentasBloque;
+		}).reduce(new long[3], SimuladorMonteCarlo::sumar);
+
+		return new Estimacion(cuentas[0], cuentas[1], cuentas[2], false);
+	}
+
+	/**
+	 * Calcula las probabilidades exactas entre dos competidores con los cuatro combates posibles.
+	 *
+	 * @param c1 Competidor desde cuyo punto de vista se cuentan los resultados.
+	 * @param c2 Rival, del tipo opuesto.
+	 * @return Las probabilidades exactas para c1, sobre cuatro combates.
+	 * @throws IllegalArgumentException Si los competidores son del mismo tipo.
+	 */
+	public static Estimacion calcularExacto(Competidor c1, Competidor c2) throws IllegalArgumentException {
+		validarRivales(c1, c2);
+		long[] cuentas = new long[3];
+		for (Caracteristica c : CARACTERISTICAS) {
+			cuentas[indiceResultado(c1.compararRotacion(c2, c))]++;
+		}
+		return new Estimacion(cuentas[0], cuentas[1], cuentas[2], true);
+	}
+
+	/**
+	 * Simula combates entre competidores de un grupo: en cada uno se sortean un héroe, un villano y la característica inicial.
+	 *
+	 * @param competidores Competidores de ambos tipos.
+	 * @param combates     Cantidad de combates a simular.
+	 * @return Una estimación por competidor, en el orden de la lista, con sus resultados contra un rival al azar.
+	 * @throws IllegalArgumentException Si no hay competidores de ambos tipos o la cantidad de combates no es positiva o supera MAX_COMBATES.
+	 */
+	public List<Estimacion> simular(List<? extends Competidor> competidores, long combates) throws IllegalArgumentException {
+		int bloques = contarBloques(combates);
+		List<Integer> heroesLista = new ArrayList<Integer>();
+		List<Integer> villanosLista = new ArrayList<Integer>();
+		for (int i = 0; i < competidores.size(); i++) {
+			(competidores.get(i).getTipoCompetidor() == TipoCompetidor.HEROE ? heroesLista : villanosLista).add(i);
+		}
+		if (heroesLista.isEmpty() || villanosLista.isEmpty()) {
+			throw new IllegalArgumentException("Se necesitan competidores de ambos tipos");
+		}
+		int[] heroes = heroesLista.stream().mapToInt(Integer::intValue).toArray();
+		int[] villanos = villanosLista.stream().mapToInt(Integer::intValue).toArray();
+		Competidor[] todos = competidores.toArray(new Competidor[0]);
+
+		SplittableRandom[] generadores = dividir(bloques);
+
+		// Cuentas de cada competidor: victorias, empates y derrotas en las posiciones 3 * i, 3 * i + 1 y 3 * i + 2
+		long[] cuentas = IntStream.range(0, bloques).parallel().mapToObj(bloque -> {
+			long[] cuentasBloque = new long[3 * todos.length];
+			SplittableRandom random = generadores[bloque];
+			long desde = (long) bloque * COMBATES_POR_BLOQUE;
+			long hasta = Math.min(combates, desde + COMBATES_POR_BLOQUE);
+			for (long k = desde; k < hasta; k++) {
+				int heroe = heroes[random.nextInt(heroes.length)];
+				int villano = villanos[random.nextInt(villanos.length)];
+				Caracteristica c = CARACTERISTICAS[random.nextInt(CARACTERISTICAS.length)];
+				int resultado = indiceResultado(todos[heroe].compararRotacion(todos[villano], c));
+				cuentasBloque[3 * heroe + resultado]++;
+				cuentasBloque[3 * villano + 2 - resultado]++;
+			}
+			return cuentasBloque;
+		}).reduce(SimuladorMonteCarlo::sumar).get();
+
+		List<Estimacion> estimaciones = new ArrayList<Estimacion>(todos.length);
+		for (int i = 0; i < todos.length; i++) {
+			estimaciones.add(new Estimacion(cuentas[3 * i], cuentas[3 * i + 1], cuentas[3 * i + 2], false));
+		}
+		return estimaciones;
+	}
+
+	/**
+	 * Calcula las probabilidades exactas de cada competidor de un grupo contra un rival del tipo opuesto y una
+	 * característica inicial elegidos al azar. Usa ReporteDominancia, sin combatir todos contra todos.
+	 *
+	 * @param competidores Competidores de ambos tipos.
+	 * @return Una estimación exacta por competidor, en el orden de la lista, sobre sus combates contra todo el tipo opuesto.
+	 */
+	public static List<Estimacion> calcularExacto(List<? extends Competidor> competidores) {
+		ReporteDominancia reporte = ReporteDominancia.calcular(competidores);
+		List<Estimacion> estimaciones = new ArrayList<Estimacion>(competidores.size());
+		for (int i = 0; i < competidores.size(); i++) {
+			long victorias = 0;
+			long empates = 0;
+			long derrotas = 0;
+			for (Caracteristica c : CARACTERISTICAS) {
+				victorias += reporte.getVictorias(i, c);
+				empates += reporte.getEmpates(i, c);
+				derrotas += reporte.getDerrotas(i, c);
+			}
+			estimaciones.add(new Estimacion(victorias, empates, derrotas, true));
+		}
+		return estimaciones;
+	}
+
+	// Cantidad de bloques de COMBATES_POR_BLOQUE combates, el último posiblemente incompleto
+	private static int contarBloques(long combates) throws IllegalArgumentException {
+		if (combates <= 0) {
+			throw new IllegalArgumentException("La cantidad de combates debe ser positiva");
+		}
+		if (combates > MAX_COMBATES) {
+			throw new IllegalArgumentException("La cantidad de combates no puede superar " + MAX_COMBATES);
+		}
+		return (int) ((combates - 1) / COMBATES_POR_BLOQUE + 1);
+	}
+
+	private SplittableRandom[] dividir(int bloques) {
+		SplittableRandom raiz = new SplittableRandom(semilla);
+		SplittableRandom[] generadores = new SplittableRandom[bloques];
+		for (int bloque = 0; bloque < bloques; bloque++) {
+			generadores[bloque] = raiz.split();
+		}
+		return generadores;
+	}
+
+	private static void validarRivales(Competidor c1, Competidor c2) throws IllegalArgumentException {
+		if (c1.getTipoCompetidor() == c2.getTipoCompetidor()) {
+			throw new IllegalArgumentException("No se pueden enfrentar competidores del mismo tipo");
+		}
+	}
+
+	// 0 victoria, 1 empate, 2 derrota
+	private static int indiceResultado(int resultado) {
+		return resultado > 0 ? 0 : (resultado == 0 ? 1 : 2);
+	}
+
+	private static long[] sumar(long[] a, long[] b) {
+		long[] suma = new long[a.length];
+		for (int i = 0; i < a.length; i++) {
+			suma[i] = a[i] + b[i];
+		}
+		return suma;
+	}
+
+	/**
+	 * Resultado de una simulación: cantidades de victorias, empates y derrotas, con sus probabilidades
+	 * e intervalos de confianza del 95% (intervalo de Wilson). En el modo exacto los intervalos tienen ancho cero.
+	 */
+	public static class Estimacion {
+		private final long victorias;
+		private final long empates;
+		private final long derrotas;
+		private final boolean exacta;
+
+		Estimacion(long victorias, long empates, long derrotas, boolean exacta) {
+			this.victorias = victorias;
+			this.empates = empates;
+			this.derrotas = derrotas;
+			this.exacta = exacta;
+		}
+
+		public long getVictorias() {
+			return victorias;
+		}
+
+		public long getEmpates() {
+			return empates;
+		}
+
+		public long getDerrotas() {
+			return derrotas;
+		}
+
+		public long getCombates() {
+			return victorias + empates + derrotas;
+		}
+
+		public boolean isExacta() {
+			return exacta;
+		}
+
+		public double getProbabilidadVictoria() {
+			return probabilidad(victorias);
+		}
+
+		public double getProbabilidadEmpate() {
+			return probabilidad(empates);
+		}
+
+		public double getProbabilidadDerrota() {
+			return probabilidad(derrotas);
+		}
+
+		/**
+		 * @return Los extremos inferior y superior del intervalo de confianza de la probabilidad de victoria.
+		 */
+		public double[] getIntervaloVictoria() {
+			return intervalo(victorias);
+		}
+
+		public double[] getIntervaloEmpate() {
+			return intervalo(empates);
+		}
+
+		public double[] getIntervaloDerrota() {
+			return intervalo(derrotas);
+		}
+
+		private double probabilidad(long cuenta) {
+			long n = getCombates();
+			return n == 0 ? 0 : (double) cuenta / n;
+		}
+
+		private double[] intervalo(long cuenta) {
+			double p = probabilidad(cuenta);
+			long n = getCombates();
+			if (exacta || n == 0) {
+				return new double[] {p, p};
+			}
+			double z2 = Z_95 * Z_95;
+			double denominador = 1 + z2 / n;
+			double centro = (p + z2 / (2 * n)) / denominador;
+			double margen = Z_95 * Math.sqrt(p * (1 - p) / n + z2 / (4.0 * n * n)) / denominador;
+			return new double[] {Math.max(0, centro - margen), Math.min(1, centro + margen)};
+		}
+
+		@Override
+		public String toString() {
+			return "victoria " + formatear(victorias) + ", empate " + formatear(empates) + ", derrota " + formatear(derrotas);
+		}
+
+		private String formatear(long cuenta) {
+			if (exacta) {
+				return String.format(Locale.ROOT, "%.4f", probabilidad(cuenta));
+			}
+			double[] extremos = intervalo(cuenta);
+			return String.format(Locale.ROOT, "%.4f [%.4f, %.4f]", probabilidad(cuenta), extremos[0], extremos[1]);
+		}
+	}
+}
@@ -0,0 +1,403 @@
+package com.heroesyvillanos;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Clase SnapshotJuego que guarda y recupera el estado completo del juego en un archivo binario.
+ * A diferencia de personajes.in y ligas.in, no hace falta buscar nombres ni recalcular promedios al cargarlo:
+ * los personajes se guardan por columnas, las ligas se guardan con referencias por índice a sus miembros
+ * (cada sub-liga antes que la liga que la contiene) y con sus acumulados ya calculados.
+ *
+ * Formato (enteros en big-endian):
+ * <pre>
+ * cabecera:   int MAGIA, int VERSION, long generación, int cantidad de características
+ * personajes: sección con los personajes del almacén
+ * extras:     sección con los personajes de las ligas que no están en el almacén
+ * ligas:      int cantidad, y por liga: nombre, byte tipo, long cantidad de personajes, long suma por característica,
+ *             int cantidad de miembros, y por miembro: byte clase, int índice
+ * juego:      int cantidad, int índice de cada liga de la lista del juego
+ *
+ * sección de personajes: int cantidad, una columna de int por característica, el tipo como BitSet (int cantidad de long, long...),
+ *                        y por personaje: nombre real, nombre de fantasía
+ * texto: int cantidad de bytes, bytes en UTF-8
+ * </pre>
+ * La generación identifica al snapshot como base de un DiarioCambios.
+ */
+public class SnapshotJuego {
+	private static final int MAGIA = 0x48795653; // "HyVS"
+	private static final int VERSION = 2;
+
+	private static final byte MIEMBRO_PERSONAJE = 0;
+	private static final byte MIEMBRO_PERSONAJE_EXTRA = 1;
+	private static final byte MIEMBRO_LIGA = 2;
+
+	private static final int TAMANIO_BUFFER = 64 * 1024;
+
+	private final AlmacenPersonajes almacenPersonajes;
+	private final List<Liga> ligas;
+	private final long generacion;
+
+	private SnapshotJuego(AlmacenPersonajes almacenPersonajes, List<Liga> ligas, long generacion) {
+		this.almacenPersonajes = almacenPersonajes;
+		this.ligas = ligas;
+		this.generacion = generacion;
+	}
+
+	/**
+	 * @return El almacén con los personajes recuperados, en el mismo orden de id que al guardarlo.
+	 */
+	public AlmacenPersonajes getAlmacenPersonajes() {
+		return almacenPersonajes;
+	}
+
+	/**
+	 * @return Las ligas recuperadas, en el mismo orden que tenía la lista del juego al guardarlo.
+	 */
+	public List<Liga> getLigas() {
+		return ligas;
+	}
+
+	/**
+	 * @return La generación con la que se guardó el snapshot.
+	 */
+	public long getGeneracion() {
+		return generacion;
+	}
+
+	/**
+	 * Guarda el estado del juego en un archivo binario, con generación 0.
+	 *
+	 * @param path    Ruta del archivo a escribir. Si existe, se reemplaza.
+	 * @param almacen Almacén con los personajes del juego.
+	 * @param ligas   Ligas del juego. Sus sub-ligas se guardan aunque no estén en la lista.
+	 * @throws IOException Si ocurre un error al escribir el archivo.
+	 */
+	public static void guardar(String path, AlmacenPersonajes almacen, List<Liga> ligas) throws IOException {
+		guardar(path, almacen, ligas, 0);
+	}
+
+	/**
+	 * Guarda el estado del juego en un archivo binario. Se escribe primero un archivo temporal que luego
+	 * reemplaza al anterior, así un corte a mitad de la escritura no deja un snapshot incompleto.
+	 *
+	 * @param path       Ruta del archivo a escribir. Si existe, se reemplaza.
+	 * @param almacen    Almacén con los personajes del juego.
+	 * @param ligas      Ligas del juego. Sus sub-ligas se guardan aunque no estén en la lista.
+	 * @param generacion Generación del snapshot, usada por DiarioCambios para reconocer su base.
+	 * @throws IOException Si ocurre un error al escribir el archivo.
+	 */
+	public static void guardar(String path, AlmacenPersonajes almacen, List<Liga> ligas, long generacion) throws IOException {
+		List<Liga> ligasOrdenadas = ordenarSubLigasPrimero(ligas);
+		Map<Liga, Integer> indiceLiga = new IdentityHashMap<Liga, Integer>();
+		for (int i = 0; i < ligasOrdenadas.size(); i++) {
+			indiceLiga.put(ligasOrdenadas.get(i), i);
+		}
+
+		// Personajes de las ligas que no están en el almacén (por ejemplo, si se volvieron a cargar los personajes)
+		List<Personaje> extras = new ArrayList<Personaje>();
+		Map<Personaje, Integer> indiceExtra = new IdentityHashMap<Personaje, Integer>();
+		for (Liga liga : ligasOrdenadas) {
+			for (Competidor c : liga.getMiembrosDirectos()) {
+				if (c instanceof Personaje && !estaEnAlmacen((Personaje) c, almacen) && !indiceExtra.containsKey(c)) {
+					indiceExtra.put((Personaje) c, extras.size());
+					extras.add((Personaje) c);
+				}
+			}
+		}
+
+		Caracteristica[] carac_values = Caracteristica.values();
+		Path destino = Paths.get(path);
+		Path temporal = Paths.get(path + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporal.toFile()), TAMANIO_BUFFER))) {
+			out.writeInt(MAGIA);
+			out.writeInt(VERSION);
+			out.writeLong(generacion);
+			out.writeInt(carac_values.length);
+
+			int[][] columnas = new int[carac_values.length][];
+			for (Caracteristica c : carac_values) {
+				columnas[c.ordinal()] = almacen.getColumna(c);
+			}
+			escribirPersonajes(out, almacen.getCantidad(), columnas, almacen.getEsHeroe(), almacen::getNombre, almacen::getNombreFantasia);
+
+			int[][] columnasExtras = new int[carac_values.length][extras.size()];
+			BitSet esHeroeExtras = new BitSet();
+			for (int i = 0; i < extras.size(); i++) {
+				Personaje p = extras.get(i);
+				for (Caracteristica c : carac_values) {
+					columnasExtras[c.ordinal()][i] = p.getPromedioCaracteristica(c);
+				}
+				esHeroeExtras.set(i, p.getTipoCompetidor() == TipoCompetidor.HEROE);
+			}
+			escribirPersonajes(out, extras.size(), columnasExtras, esHeroeExtras,
+					i -> extras.get(i).getNombre(), i -> extras.get(i).getNombreFantasia());
+
+			out.writeInt(ligasOrdenadas.size());
+			for (Liga liga : ligasOrdenadas) {
+				escribirTexto(out, liga.getNombreLiga());
+				out.writeByte(liga.getTipoCompetidor() == TipoCompetidor.HEROE ? 1 : 0);
+				out.writeLong(liga.getCantidadCompetidoresExacta());
+				for (Caracteristica c : carac_values) {
+					out.writeLong(liga.getSumaCaracteristicaExacta(c));
+				}
+				List<Competidor> miembros = liga.getMiembrosDirectos();
+				out.writeInt(miembros.size());
+				for (Competidor c : miembros) {
+					if (c instanceof Liga) {
+						out.writeByte(MIEMBRO_LIGA);
+						out.writeInt(indiceLiga.get(c));
+					} else if (indiceExtra.containsKey(c)) {
+						out.writeByte(MIEMBRO_PERSONAJE_EXTRA);
+						out.writeInt(indiceExtra.get(c));
+					} else {
+						out.writeByte(MIEMBRO_PERSONAJE);
+						out.writeInt(((Personaje) c).getIdAlmacen());
+					}
+				}
+			}
+
+			out.writeInt(ligas.size());
+			for (Liga liga : ligas) {
+				out.writeInt(indiceLiga.get(liga));
+			}
+		} catch (IOException e) {
+			Files.deleteIfExists(temporal);
+			throw e;
+		}
+		Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Carga un snapshot con una única lectura del archivo mapeado en memoria.
+	 *
+	 * @param path Ruta del archivo a leer.
+	 * @return El snapshot con los personajes y las ligas recuperados.
+	 * @throws java.nio.file.NoSuchFileException Si el archivo no existe.
+	 * @throws IOException                       Si ocurre un error al leer, el archivo no es un snapshot o está dañado.
+	 */
+	public static SnapshotJuego cargar(String path) throws IOException {
+		try (FileChannel canal = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+			long tamanio = canal.size();
+			if (tamanio > Integer.MAX_VALUE) {
+				throw new IOException("El snapshot es demasiado grande para leerlo de una vez: " + path);
+			}
+			return leer(canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanio));
+		} catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | NegativeArraySizeException e) {
+			throw new IOException("El snapshot está incompleto o dañado: " + path, e);
+		}
+	}
+
+	/**
+	 * Lee sólo la generación de la cabecera de un snapshot, sin cargar el resto.
+	 *
+	 * @param path Ruta del snapshot.
+	 * @return La generación del snapshot, o -1 si el archivo no existe o no es un snapshot de esta versión.
+	 * @throws IOException Si ocurre un error al leer el archivo.
+	 */
+	public static long leerGeneracion(String path) throws IOException {
+		ByteBuffer cabecera = ByteBuffer.allocate(2 * Integer.BYTES + Long.BYTES);
+		try (FileChannel canal = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+			while (cabecera.hasRemaining() && canal.read(cabecera) >= 0) {
+			}
+		} catch (NoSuchFileException e) {
+			return -1;
+		}
+		cabecera.flip();
+		if (cabecera.remaining() < 2 * Integer.BYTES || cabecera.getInt() != MAGIA) {
+			return -1;
+		}
+		return cabecera.getInt() == VERSION && cabecera.remaining() == Long.BYTES ? cabecera.getLong() : -1;
+	}
+
+	private static SnapshotJuego leer(ByteBuffer buffer) throws IOException {
+		if (buffer.remaining() < 4 || buffer.getInt() != MAGIA) {
+			throw new IOException("El archivo no es un snapshot del juego");
+		}
+		int version = buffer.getInt();
+		if (version != VERSION) {
+			throw new IOException("Versión de snapshot no soportada: " + version);
+		}
+		long generacion = buffer.getLong();
+		Caracteristica[] carac_values = Caracteristica.values();
+		if (buffer.getInt() != carac_values.length) {
+			throw new IOException("El snapshot fue guardado con otras características");
+		}
+
+		LectorTexto lectorTexto = new LectorTexto();
+		AlmacenPersonajes almacen = leerPersonajes(buffer, lectorTexto);
+		AlmacenPersonajes extras = leerPersonajes(buffer, lectorTexto);
+
+		int cantidadLigas = buffer.getInt();
+		Liga[] ligasLeidas = new Liga[cantidadLigas];
+		long[] sumas = new long[carac_values.length];
+		for (int i = 0; i < cantidadLigas; i++) {
+			String nombre = lectorTexto.leer(buffer);
+			TipoCompetidor tipo = buffer.get() == 1 ? TipoCompetidor.HEROE : TipoCompetidor.VILLANO;
+			long cantidadCompetidores = buffer.getLong();
+			for (int c = 0; c < sumas.length; c++) {
+				sumas[c] = buffer.getLong();
+			}
+			int cantidadMiembros = buffer.getInt();
+			List<Competidor> miembros = new ArrayList<Competidor>(cantidadMiembros);
+			for (int m = 0; m < cantidadMiembros; m++) {
+				byte clase = buffer.get();
+				int indice = buffer.getInt();
+				Competidor miembro;
+				if (clase == MIEMBRO_LIGA && indice < i) {
+					// Las sub-ligas se guardaron antes que la liga que las contiene
+					miembro = ligasLeidas[indice];
+				} else if (clase == MIEMBRO_PERSONAJE_EXTRA) {
+					miembro = extras.getPersonaje(indice);
+				} else if (clase == MIEMBRO_PERSONAJE) {
+					miembro = almacen.getPersonaje(indice);
+				} else {
+					throw new IOException("Referencia inválida en la liga " + nombre);
+				}
+				if (!miembro.puedeEntrarEnLiga()) {
+					throw new IOException("Un competidor figura en más de una liga: " + miembro);
+				}
+				// Se marca enseguida para detectar también un miembro repetido en la misma liga
+				miembro.setEstaDentroDeLiga(true);
+				miembros.add(miembro);
+			}
+			ligasLeidas[i] = new Liga(nombre, tipo, miembros, sumas, cantidadCompetidores);
+		}
+
+		int cantidadJuego = buffer.getInt();
+		List<Liga> ligas = new ArrayList<Liga>(cantidadJuego);
+		for (int i = 0; i < cantidadJuego; i++) {
+			ligas.add(ligasLeidas[buffer.getInt()]);
+		}
+		return new SnapshotJuego(almacen, ligas, generacion);
+	}
+
+	/**
+	 * Devuelve todas las ligas alcanzables desde la lista, cada sub-liga antes que la liga que la contiene.
+	 * Se recorre con una pila explícita para no depender de la profundidad de las ligas.
+	 */
+	private static List<Liga> ordenarSubLigasPrimero(List<Liga> ligas) {
+		List<Liga> ordenadas = new ArrayList<Liga>();
+		Map<Liga, Boolean> vistas = new IdentityHashMap<Liga, Boolean>();
+		Deque<Liga> pilaLigas = new ArrayDeque<Liga>();
+		Deque<Iterator<Competidor>> pilaMiembros = new ArrayDeque<Iterator<Competidor>>();
+
+		for (Liga raiz : ligas) {
+			if (vistas.put(raiz, Boolean.TRUE) != null) {
+				continue;
+			}
+			pilaLigas.push(raiz);
+			pilaMiembros.push(raiz.getMiembrosDirectos().iterator());
+			while (!pilaLigas.isEmpty()) {
+				Iterator<Competidor> it = pilaMiembros.peek();
+				if (it.hasNext()) {
+					Competidor c = it.next();
+					if (c instanceof Liga && vistas.put((Liga) c, Boolean.TRUE) == null) {
+						pilaLigas.push((Liga) c);
+						pilaMiembros.push(((Liga) c).getMiembrosDirectos().iterator());
+					}
+				} else {
+					pilaMiembros.pop();
+					ordenadas.add(pilaLigas.pop());
+				}
+			}
+		}
+		return ordenadas;
+	}
+
+	private static boolean estaEnAlmacen(Personaje p, AlmacenPersonajes almacen) {
+		int id = p.getIdAlmacen();
+		return id >= 0 && id < almacen.getCantidad() && almacen.getPersonaje(id) == p;
+	}
+
+	private static void escribirPersonajes(DataOutputStream out, int cantidad, int[][] columnas, BitSet esHeroe,
+			IntFunction<String> nombre, IntFunction<String> nombreFantasia) throws IOException {
+		out.writeInt(cantidad);
+		// Las columnas se pasan por un buffer de bytes en bloques, en lugar de escribir int por int
+		ByteBuffer bloque = ByteBuffer.allocate(TAMANIO_BUFFER);
+		for (int[] columna : columnas) {
+			for (int desde = 0; desde < cantidad; ) {
+				int hasta = Math.min(cantidad, desde + TAMANIO_BUFFER / Integer.BYTES);
+				bloque.clear();
+				bloque.asIntBuffer().put(columna, desde, hasta - desde);
+				out.write(bloque.array(), 0, (hasta - desde) * Integer.BYTES);
+				desde = hasta;
+			}
+		}
+		long[] bits = esHeroe.get(0, cantidad).toLongArray();
+		out.writeInt(bits.length);
+		for (long b : bits) {
+			out.writeLong(b);
+		}
+		for (int id = 0; id < cantidad; id++) {
+			escribirTexto(out, nombre.apply(id));
+			escribirTexto(out, nombreFantasia.apply(id));
+		}
+	}
+
+	private static AlmacenPersonajes leerPersonajes(ByteBuffer buffer, LectorTexto lectorTexto) throws IOException {
+		int cantidad = buffer.getInt();
+		if (cantidad < 0 || (long) cantidad * Integer.BYTES > buffer.remaining()) {
+			throw new IOException("Cantidad de personajes inválida: " + cantidad);
+		}
+		int[][] columnas = new int[Caracteristica.values().length][cantidad];
+		for (int[] columna : columnas) {
+			buffer.asIntBuffer().get(columna);
+			buffer.position(buffer.position() + cantidad * Integer.BYTES);
+		}
+		long[] bits = new long[buffer.getInt()];
+		for (int i = 0; i < bits.length; i++) {
+			bits[i] = buffer.getLong();
+		}
+		String[] nombres = new String[cantidad];
+		String[] nombresFantasia = new String[cantidad];
+		for (int id = 0; id < cantidad; id++) {
+			nombres[id] = lectorTexto.leer(buffer);
+			nombresFantasia[id] = lectorTexto.leer(buffer);
+		}
+		return new AlmacenPersonajes(columnas, BitSet.valueOf(bits), nombres, nombresFantasia, cantidad);
+	}
+
+	static void escribirTexto(DataOutputStream out, String texto) throws IOException {
+		byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Lee textos guardados con escribirTexto reusando un mismo buffer, que crece cuando un texto no entra.
+	 */
+	static class LectorTexto {
+		private byte[] aux = new byte[256];
+
+		String leer(ByteBuffer buffer) {
+			int largo = buffer.getInt();
+			if (largo > aux.length) {
+				aux = new byte[largo];
+			}
+			buffer.get(aux, 0, largo);
+			return new String(aux, 0, largo, StandardCharsets.UTF_8);
+		}
+	}
+}
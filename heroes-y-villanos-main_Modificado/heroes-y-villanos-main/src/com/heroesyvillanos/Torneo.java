@@ -0,0 +1,299 @@
+package com.heroesyvillanos;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Clase Torneo que enfrenta a cada héroe contra cada villano (personajes y ligas) en una característica
+ * y arma la tabla de posiciones.
+ *
+ * Los combates siguen las reglas de Competidor.esGanador. El trabajo se reparte en un ForkJoinPool dividiendo
+ * la tabla de héroes por villanos en rectángulos. Cada hilo acumula en sus propias cuentas de héroes y villanos,
+ * que se suman una sola vez al terminar: ningún contador se comparte entre hilos, no hace falta sincronizar y
+ * las tareas no reservan memoria, por grande que sea la cantidad de villanos.
+ */
+public class Torneo {
+	public static final int PUNTOS_VICTORIA = 3;
+	public static final int PUNTOS_EMPATE = 1;
+
+	// Cantidad de combates a partir de la cual una tarea se divide en dos
+	private static final long COMBATES_POR_TAREA = 1 << 16;
+	private static final int VICTORIAS = 0;
+	private static final int EMPATES = 1;
+	private static final int DERROTAS = 2;
+
+	private final Caracteristica caracteristica;
+	private final List<Posicion> posiciones;
+
+	private Torneo(Caracteristica caracteristica, List<Posicion> posiciones) {
+		this.caracteristica = caracteristica;
+		this.posiciones = posiciones;
+	}
+
+	/**
+	 * Juega el torneo en el pool común de ForkJoin.
+	 *
+	 * @param competidores   Personajes y ligas de ambos tipos. Los del mismo tipo no se enfrentan entre sí.
+	 * @param caracteristica Característica con la que se inicia cada combate.
+	 * @return El torneo jugado, con su tabla de posiciones.
+	 */
+	public static Torneo jugar(List<? extends Competidor> competidores, Caracteristica caracteristica) {
+		return jugar(competidores, caracteristica, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Juega el torneo repartiendo los combates en un pool dado.
+	 *
+	 * @param competidores   Personajes y ligas de ambos tipos. Los del mismo tipo no se enfrentan entre sí.
+	 * @param caracteristica Característica con la que se inicia cada combate.
+	 * @param pool           Pool donde se ejecutan las tareas.
+	 * @return El torneo jugado, con su tabla de posiciones.
+	 */
+	public static Torneo jugar(List<? extends Competidor> competidores, Caracteristica caracteristica, ForkJoinPool pool) {
+		List<Competidor> heroes = new ArrayList<Competidor>();
+		List<Competidor> villanos = new ArrayList<Competidor>();
+		for (Competidor c : competidores) {
+			(c.getTipoCompetidor() == TipoCompetidor.HEROE ? heroes : villanos).add(c);
+		}
+
+		Combates combates = new Combates(heroes.toArray(new Competidor[0]), villanos.toArray(new Competidor[0]), caracteristica);
+		Competidor[] filas = combates.filas;
+		Competidor[] columnas = combates.columnas;
+		pool.invoke(new TareaCombates(combates, 0, filas.length, 0, columnas.length));
+
+		// Se suman una sola vez las cuentas de cada hilo que participó
+		int[] cuentasFilas = new int[3 * filas.length];
+		int[] cuentasColumnas = new int[3 * columnas.length];
+		for (Cuentas cuentas : combates.cuentasPorHilo.values()) {
+			sumar(cuentasFilas, cuentas.filas);
+			sumar(cuentasColumnas, cuentas.columnas);
+		}
+
+		List<Posicion> posiciones = new ArrayList<Posicion>(competidores.size());
+		for (int i = 0; i < filas.length; i++) {
+			posiciones.add(new Posicion(filas[i], cuentasFilas, i));
+		}
+		for (int j = 0; j < columnas.length; j++) {
+			posiciones.add(new Posicion(columnas[j], cuentasColumnas, j));
+		}
+		Collections.sort(posiciones, ordenTabla());
+		return new Torneo(caracteristica, Collections.unmodifiableList(posiciones));
+	}
+
+	/**
+	 * Orden de la tabla: más puntos primero, luego más victorias y, si siguen empatados, los promedios
+	 * en el orden por defecto de Ordenamiento, de mayor a menor. El ordenamiento es estable.
+	 */
+	private static Comparator<Posicion> ordenTabla() {
+		Ordenamiento ordenamiento = new Ordenamiento();
+		return Comparator.comparingInt(Posicion::getPuntos).reversed()
+				.thenComparing(Comparator.comparingInt(Posicion::getVictorias).reversed())
+				.thenComparing((p1, p2) -> ordenamiento.compare(p2.competidor, p1.competidor));
+	}
+
+	private static void sumar(int[] total, int[] parcial) {
+		for (int k = 0; k < total.length; k++) {
+			total[k] += parcial[k];
+		}
+	}
+
+	/**
+	 * Datos compartidos por las tareas de un torneo: los competidores con sus claves de rotación, leídas una sola
+	 * vez, y las cuentas de cada hilo. Cada hilo sólo escribe en sus propias cuentas.
+	 */
+	private static class Combates {
+		private final Competidor[] filas;
+		private final Competidor[] columnas;
+		private final Caracteristica caracteristica;
+		private final long[] clavesFilas;
+		private final boolean[] validasFilas;
+		private final long[] clavesColumnas;
+		private final boolean[] validasColumnas;
+		private final Map<Thread, Cuentas> cuentasPorHilo = new ConcurrentHashMap<Thread, Cuentas>();
+
+		Combates(Competidor[] filas, Competidor[] columnas, Caracteristica caracteristica) {
+			this.filas = filas;
+			this.columnas = columnas;
+			this.caracteristica = caracteristica;
+			this.clavesFilas = new long[filas.length];
+			this.validasFilas = new boolean[filas.length];
+			this.clavesColumnas = new long[columnas.length];
+			this.validasColumnas = new boolean[columnas.length];
+			leerClaves(filas, clavesFilas, validasFilas);
+			leerClaves(columnas, clavesColumnas, validasColumnas);
+		}
+
+		private void leerClaves(Competidor[] competidores, long[] claves, boolean[] validas) {
+			for (int i = 0; i < competidores.length; i++) {
+				validas[i] = competidores[i].tieneClavesRotacion();
+				claves[i] = competidores[i].getClaveRotacion(caracteristica);
+			}
+		}
+
+		Cuentas cuentasDelHilo() {
+			return cuentasPorHilo.computeIfAbsent(Thread.currentThread(), hilo -> new Cuentas(filas.length, columnas.length));
+		}
+	}
+
+	/**
+	 * Victorias, empates y derrotas acumulados por un hilo, tres lugares por héroe y tres por villano.
+	 */
+	private static class Cuentas {
+		private final int[] filas;
+		private final int[] columnas;
+
+		Cuentas(int cantidadFilas, int cantidadColumnas) {
+			this.filas = new int[3 * cantidadFilas];
+			this.columnas = new int[3 * cantidadColumnas];
+		}
+	}
+
+	/**
+	 * Combates de un rectángulo de héroes contra villanos. Se divide por el lado más largo hasta que la
+	 * cantidad de combates es chica, así también se reparte el trabajo cuando hay pocos héroes y muchos villanos.
+	 */
+	private static class TareaCombates extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Combates combates;
+		private final int filaDesde;
+		private final int filaHasta;
+		private final int columnaDesde;
+		private final int columnaHasta;
+
+		TareaCombates(Combates combates, int filaDesde, int filaHasta, int columnaDesde, int columnaHasta) {
+			this.combates = combates;
+			this.filaDesde = filaDesde;
+			this.filaHasta = filaHasta;
+			this.columnaDesde = columnaDesde;
+			this.columnaHasta = columnaHasta;
+		}
+
+		@Override
+		protected void compute() {
+			int cantidadFilas = filaHasta - filaDesde;
+			int cantidadColumnas = columnaHasta - columnaDesde;
+			if ((long) cantidadFilas * cantidadColumnas > COMBATES_POR_TAREA) {
+				if (cantidadFilas >= cantidadColumnas) {
+					int medio = (filaDesde + filaHasta) >>> 1;
+					invokeAll(new TareaCombates(combates, filaDesde, medio, columnaDesde, columnaHasta),
+							new TareaCombates(combates, medio, filaHasta, columnaDesde, columnaHasta));
+				} else {
+					int medio = (columnaDesde + columnaHasta) >>> 1;
+					invokeAll(new TareaCombates(combates, filaDesde, filaHasta, columnaDesde, medio),
+							new TareaCombates(combates, filaDesde, filaHasta, medio, columnaHasta));
+				}
+				return;
+			}
+			combatir();
+		}
+
+		private void combatir() {
+			Competidor[] filas = combates.filas;
+			Competidor[] columnas = combates.columnas;
+			Caracteristica caracteristica = combates.caracteristica;
+			long[] clavesColumnas = combates.clavesColumnas;
+			boolean[] validasColumnas = combates.validasColumnas;
+			Cuentas cuentas = combates.cuentasDelHilo();
+			int[] cuentasFilas = cuentas.filas;
+			int[] cuentasColumnas = cuentas.columnas;
+
+			for (int i = filaDesde; i < filaHasta; i++) {
+				Competidor fila = filas[i];
+				boolean validaFila = combates.validasFilas[i];
+				long claveFila = combates.clavesFilas[i];
+				int victorias = 0;
+				int empates = 0;
+				int derrotas = 0;
+				for (int j = columnaDesde; j < columnaHasta; j++) {
+					// Con claves válidas en ambos lados, comparar las claves es el mismo combate que esGanador
+					int resultado = validaFila && validasColumnas[j]
+							? Long.compareUnsigned(claveFila, clavesColumnas[j])
+							: fila.compararRotacion(columnas[j], caracteristica);
+					if (resultado > 0) {
+						victorias++;
+						cuentasColumnas[3 * j + DERROTAS]++;
+					} else if (resultado < 0) {
+						derrotas++;
+						cuentasColumnas[3 * j + VICTORIAS]++;
+					} else {
+						empates++;
+						cuentasColumnas[3 * j + EMPATES]++;
+					}
+				}
+				cuentasFilas[3 * i + VICTORIAS] += victorias;
+				cuentasFilas[3 * i + EMPATES] += empates;
+				cuentasFilas[3 * i + DERROTAS] += derrotas;
+			}
+		}
+	}
+
+	/**
+	 * @return La tabla de posiciones, de la primera a la última.
+	 */
+	public List<Posicion> getPosiciones() {
+		return posiciones;
+	}
+
+	public Caracteristica getCaracteristica() {
+		return caracteristica;
+	}
+
+	/**
+	 * Arma una línea de texto por posición, con los puntos y las victorias, empates y derrotas.
+	 *
+	 * @return Las líneas de la tabla, en orden.
+	 */
+	public List<String> getLineas() {
+		List<String> lineas = new ArrayList<String>(posiciones.size());
+		for (int i = 0; i < posiciones.size(); i++) {
+			Posicion p = posiciones.get(i);
+			lineas.add((i + 1) + "- " + p.getCompetidor() + ": " + p.getPuntos() + " pts ("
+					+ p.getVictorias() + "/" + p.getEmpates() + "/" + p.getDerrotas() + ")");
+		}
+		return lineas;
+	}
+
+	/**
+	 * Una fila de la tabla de posiciones.
+	 */
+	public static class Posicion {
+		private final Competidor competidor;
+		private final int victorias;
+		private final int empates;
+		private final int derrotas;
+
+		private Posicion(Competidor competidor, int[] cuentas, int indice) {
+			this.competidor = competidor;
+			this.victorias = cuentas[3 * indice + VICTORIAS];
+			this.empates = cuentas[3 * indice + EMPATES];
+			this.derrotas = cuentas[3 * indice + DERROTAS];
+		}
+
+		public Competidor getCompetidor() {
+			return competidor;
+		}
+
+		public int getVictorias() {
+			return victorias;
+		}
+
+		public int getEmpates() {
+			return empates;
+		}
+
+		public int getDerrotas() {
+			return derrotas;
+		}
+
+		public int getPuntos() {
+			return PUNTOS_VICTORIA * victorias + PUNTOS_EMPATE * empates;
+		}
+	}
+}